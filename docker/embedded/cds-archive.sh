@@ -0,0 +1,9 @@
+#!/bin/sh
+# Builds the embedded jar and an AppCDS archive for it. The training run boots the application
+# against the configured database (SPRING_DATASOURCE_URL etc.), serves one request and exits.
+set -e
+cd "$(dirname "$0")/../.."
+mvn -B -Pembedded package -DskipTests
+cd target/embedded
+java -XX:ArchiveClassesAtExit=ProductStore.jsa -Dproductstore.cds.training=true -jar ProductStore-embedded.jar
+echo "Start with: java -XX:SharedArchiveFile=target/embedded/ProductStore.jsa -jar target/embedded/ProductStore-embedded.jar"
@@ -0,0 +1,3 @@
+#!/bin/bash
+# Lets the postgres-replica service clone and stream from this instance.
+echo "host replication all all md5" >> "$PGDATA/pg_hba.conf"
@@ -1,25 +0,0 @@
-CREATE TABLE IF NOT EXISTS users (
-    id BIGSERIAL PRIMARY KEY,
-    name VARCHAR(255) UNIQUE NOT NULL CHECK (trim(name) <> ''),
-    email VARCHAR(255) UNIQUE NOT NULL CHECK (trim(email) <> '')
-);
-
-CREATE TABLE IF NOT EXISTS products (
-    id BIGSERIAL PRIMARY KEY,
-    name VARCHAR(255) NOT NULL CHECK (trim(name) <> ''),
-    price DECIMAL(10, 2) NOT NULL CHECK (price >= 0)
-);
-
-CREATE TABLE IF NOT EXISTS orders (
-    id BIGSERIAL PRIMARY KEY,
-    user_id BIGINT NOT NULL,
-    CONSTRAINT fk_user FOREIGN KEY (user_id) REFERENCES users(id)
-);
-
-CREATE TABLE IF NOT EXISTS orders_products (
-    order_id BIGINT NOT NULL,
-    product_id BIGINT NOT NULL,
-    PRIMARY KEY (order_id, product_id),
-    CONSTRAINT fk_order FOREIGN KEY (order_id) REFERENCES orders(id),
-    CONSTRAINT fk_product FOREIGN KEY (product_id) REFERENCES products(id)
-);
\ No newline at end of file
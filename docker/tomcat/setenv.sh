@@ -0,0 +1,4 @@
+#!/bin/sh
+# PRODUCTSTORE_VIRTUAL_THREADS=true serves requests on virtual threads: conf/server.xml reads the
+# property for the HTTP connector and the application caps database access at the pool sizes.
+CATALINA_OPTS="$CATALINA_OPTS -Dproductstore.virtual-threads=${PRODUCTSTORE_VIRTUAL_THREADS:-false}"
@@ -0,0 +1,117 @@
+package productstore;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import productstore.config.WebAppInitializer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the application on an embedded Tomcat with the same {@link WebAppInitializer} as the war.
+ * Unless configured otherwise it creates application beans lazily ({@code productstore.lazy-init=true}),
+ * and it reports the time from JVM start to ready and to the first served request.
+ * <p>
+ * With {@code -Dproductstore.cds.training=true} it serves one request to itself and exits, which is
+ * the training run for an AppCDS archive (see {@code docker/embedded/cds-archive.sh}).
+ */
+public final class EmbeddedServer {
+
+    private static final Log logger = LogFactory.getLog(EmbeddedServer.class);
+
+    private EmbeddedServer() {}
+
+    public static void main(String[] args) throws Exception {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        setDefault("productstore.lazy-init", "true");
+        int port = Integer.parseInt(property("productstore.server.port", "8080"));
+
+        Tomcat tomcat = new Tomcat();
+        Path baseDir = Files.createTempDirectory("productstore-tomcat");
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(port);
+        tomcat.getConnector().setProperty("useVirtualThreads", property("productstore.virtual-threads", "false"));
+
+        Context context = tomcat.addContext("", baseDir.toString());
+        context.addServletContainerInitializer((classes, servletContext) -> {
+            new WebAppInitializer().onStartup(servletContext);
+            servletContext.addFilter("firstRequestTimer", new FirstRequestTimer(jvmStart))
+                    .addMappingForUrlPatterns(null, false, "/*");
+        }, null);
+
+        tomcat.start();
+        logger.info("ProductStore ready on port " + port + " "
+                + (System.currentTimeMillis() - jvmStart) + " ms after JVM start");
+
+        if (Boolean.parseBoolean(property("productstore.cds.training", "false"))) {
+            train(tomcat, port);
+            return;
+        }
+        tomcat.getServer().await();
+    }
+
+    /**
+     * Exercises the request path once so its classes are loaded before the JVM exits and dumps the archive.
+     */
+    private static void train(Tomcat tomcat, int port) throws LifecycleException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/products?limit=1")).GET().build();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            logger.info("CDS training request returned " + response.statusCode());
+        } catch (IOException | InterruptedException ex) {
+            logger.warn("CDS training request failed", ex);
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    private static String property(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = System.getenv(key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_'));
+        }
+        return value != null ? value : defaultValue;
+    }
+
+    private static void setDefault(String key, String value) {
+        System.setProperty(key, property(key, value));
+    }
+
+    private static final class FirstRequestTimer implements Filter {
+
+        private final long jvmStart;
+        private final AtomicBoolean reported = new AtomicBoolean();
+
+        private FirstRequestTimer(long jvmStart) {
+            this.jvmStart = jvmStart;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            chain.doFilter(request, response);
+            if (reported.compareAndSet(false, true)) {
+                logger.info("First request served " + (System.currentTimeMillis() - jvmStart)
+                        + " ms after JVM start");
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package productstore.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mapstruct.factory.Mappers;
+import productstore.config.WebConfig;
+import productstore.controller.mapper.OrderMapper;
+import productstore.controller.mapper.OrderMapperImpl;
+import productstore.controller.mapper.UserMapper;
+import productstore.model.Order;
+import productstore.model.Product;
+import productstore.model.User;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Entity graphs and wired-up mappers shared by the benchmarks, built without a Spring context.
+ */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    /**
+     * The mapper that {@link WebConfig} registers for JSON responses.
+     */
+    static ObjectMapper objectMapper() {
+        return WebConfig.objectMapper();
+    }
+
+    static OrderMapper orderMapper() {
+        OrderMapperImpl orderMapper = new OrderMapperImpl();
+        try {
+            Field userMapper = OrderMapperImpl.class.getDeclaredField("userMapper");
+            userMapper.setAccessible(true);
+            userMapper.set(orderMapper, Mappers.getMapper(UserMapper.class));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return orderMapper;
+    }
+
+    static List<Product> products(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> new Product.Builder()
+                        .withId((long) i)
+                        .withName("Product " + i)
+                        .withPriceCents(999 + 100L * i)
+                        .build())
+                .toList();
+    }
+
+    static User user(long id, int orderCount) {
+        User user = new User("User " + id, "user" + id + "@example.com");
+        user.setId(id);
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 1; i <= orderCount; i++) {
+            orders.add(new Order.Builder().withId(id * 100_000 + i).withUser(user).build());
+        }
+        user.setOrders(orders);
+        return user;
+    }
+
+    static List<Order> orders(int orderCount, int productsPerOrder) {
+        List<Product> products = products(productsPerOrder);
+        User user = user(1L, 0);
+        return IntStream.rangeClosed(1, orderCount)
+                .mapToObj(i -> new Order.Builder()
+                        .withId((long) i)
+                        .withUser(user)
+                        .withOrderProducts(products)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,55 @@
+package productstore.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency percentiles (p99 from the sample-time mode) of a database-bound endpoint on a
+ * running server, with more concurrent clients than the connection pool has connections. Compare the
+ * platform-thread and virtual-thread modes by running it against each:
+ * <pre>
+ * PRODUCTSTORE_VIRTUAL_THREADS=false docker compose up   (then again with true)
+ * mvn -Pjmh verify -Djmh.args="HttpLoadBenchmark -p baseUrl=http://localhost:8080/ProductStore"
+ * </pre>
+ * It is excluded from the default benchmark run because it needs the server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(256)
+@Fork(1)
+public class HttpLoadBenchmark {
+
+    @Param("http://localhost:8080/ProductStore")
+    private String baseUrl;
+
+    @Param("/api/orders?limit=20")
+    private String path;
+
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    @Benchmark
+    public int get() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + request.uri() + " returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,55 @@
+package productstore.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import productstore.controller.dto.output.OrderOutputDTO;
+import productstore.controller.mapper.OrderMapper;
+import productstore.model.Order;
+import productstore.service.Pagination;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of orders, as returned by {@code GET /api/orders}, for orders of 1, 10 and 100 products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int productsPerOrder;
+
+    private OrderMapper orderMapper;
+    private ObjectMapper objectMapper;
+    private List<Order> orders;
+    private List<OrderOutputDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        orderMapper = Fixtures.orderMapper();
+        objectMapper = Fixtures.objectMapper();
+        orders = Fixtures.orders(Pagination.DEFAULT_LIMIT, productsPerOrder);
+        dtos = orderMapper.toDTOs(orders);
+    }
+
+    @Benchmark
+    public List<OrderOutputDTO> toDTOs() {
+        return orderMapper.toDTOs(orders);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] toDTOsAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderMapper.toDTOs(orders));
+    }
+}
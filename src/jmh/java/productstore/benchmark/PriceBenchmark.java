@@ -0,0 +1,136 @@
+package productstore.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.model.Cents;
+import productstore.model.Order;
+import productstore.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices held in cents against the {@code double} they replaced: converting the {@code DECIMAL(10, 2)}
+ * values read from JDBC, totalling an order, and writing a page of prices as JSON. The {@code double}
+ * total is the fast but inexact one; the {@code BigDecimal} total is what an exact total of
+ * {@code double} prices costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceBenchmark {
+
+    @Param({"10", "100"})
+    private int productsPerOrder;
+
+    private BigDecimal[] columns;
+    private Order order;
+    private double[] doublePrices;
+    private int[] quantities;
+    private ObjectMapper objectMapper;
+    private List<ProductOutputDTO> dtos;
+    private List<DoublePriceDTO> doubleDtos;
+
+    @Setup
+    public void setUp() {
+        order = Fixtures.orders(1, productsPerOrder).get(0);
+        List<OrderItem> items = List.copyOf(order.getItems());
+        columns = new BigDecimal[items.size()];
+        doublePrices = new double[items.size()];
+        quantities = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            columns[i] = Cents.toDecimal(items.get(i).getProduct().getPriceCents());
+            doublePrices[i] = columns[i].doubleValue();
+            quantities[i] = items.get(i).getQuantity();
+        }
+        objectMapper = Fixtures.objectMapper();
+        dtos = Fixtures.products(productsPerOrder).stream()
+                .map(product -> new ProductOutputDTO(product.getId(), product.getName(), product.getPriceCents()))
+                .toList();
+        doubleDtos = dtos.stream()
+                .map(dto -> new DoublePriceDTO(dto.getId(), dto.getName(), Cents.toDecimal(dto.getPrice()).doubleValue()))
+                .toList();
+    }
+
+    @Benchmark
+    public void readDouble(Blackhole blackhole) {
+        for (BigDecimal column : columns) {
+            blackhole.consume(column.doubleValue());
+        }
+    }
+
+    @Benchmark
+    public void readCents(Blackhole blackhole) {
+        for (BigDecimal column : columns) {
+            blackhole.consume(Cents.fromDecimal(column));
+        }
+    }
+
+    @Benchmark
+    public double totalDouble() {
+        double total = 0;
+        for (int i = 0; i < doublePrices.length; i++) {
+            total += doublePrices[i] * quantities[i];
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal totalBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < doublePrices.length; i++) {
+            total = total.add(BigDecimal.valueOf(doublePrices[i]).multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long totalCents() {
+        return order.getTotalCents();
+    }
+
+    @Benchmark
+    public byte[] serializeDouble() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(doubleDtos);
+    }
+
+    @Benchmark
+    public byte[] serializeCents() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    /**
+     * The product representation as it was with a {@code double} price.
+     */
+    public static class DoublePriceDTO {
+
+        private final Long id;
+        private final String name;
+        private final double price;
+
+        DoublePriceDTO(Long id, String name, double price) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+    }
+}
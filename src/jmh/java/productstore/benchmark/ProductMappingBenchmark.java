@@ -0,0 +1,51 @@
+package productstore.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.controller.mapper.ProductMapper;
+import productstore.model.Product;
+import productstore.service.Pagination;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of products, as returned by {@code GET /api/products}, at the default and maximum page size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({"" + Pagination.DEFAULT_LIMIT, "" + Pagination.MAX_LIMIT})
+    private int pageSize;
+
+    private ProductMapper productMapper;
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private List<ProductOutputDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        productMapper = Mappers.getMapper(ProductMapper.class);
+        objectMapper = Fixtures.objectMapper();
+        products = Fixtures.products(pageSize);
+        dtos = productMapper.toDTOs(products);
+    }
+
+    @Benchmark
+    public List<ProductOutputDTO> toDTOs() {
+        return productMapper.toDTOs(products);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
@@ -0,0 +1,50 @@
+package productstore.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import productstore.controller.dto.output.UserOutputDTO;
+import productstore.controller.mapper.UserMapper;
+import productstore.model.User;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single user, as returned by {@code GET /api/users/{id}}, with 0, 100 and 10k orders. Only the
+ * order count is mapped, so the cost should not depend on the history size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    @Param({"0", "100", "10000"})
+    private int orderCount;
+
+    private UserMapper userMapper;
+    private ObjectMapper objectMapper;
+    private User user;
+    private UserOutputDTO dto;
+
+    @Setup
+    public void setUp() {
+        userMapper = Mappers.getMapper(UserMapper.class);
+        objectMapper = Fixtures.objectMapper();
+        user = Fixtures.user(1L, orderCount);
+        dto = userMapper.toDTO(user, (long) orderCount);
+    }
+
+    @Benchmark
+    public UserOutputDTO toDTO() {
+        return userMapper.toDTO(user, (long) orderCount);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+}
@@ -1,5 +1,6 @@
 package productstore.config;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -8,4 +9,9 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @ComponentScan(basePackages = "productstore")
 @EnableTransactionManagement
 public class AppConfig {
+
+    @Bean
+    public static LazyInitBeanFactoryPostProcessor lazyInitBeanFactoryPostProcessor() {
+        return new LazyInitBeanFactoryPostProcessor();
+    }
 }
@@ -0,0 +1,95 @@
+package productstore.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import productstore.repository.IdempotencyKeyRepository;
+import productstore.service.cache.ProductCache;
+import productstore.service.cache.SingleFlight;
+import productstore.service.idempotency.IdempotencyStore;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Hibernate second-level cache regions, as named in the entities' {@code @Cache} annotations.
+     */
+    static final List<String> ENTITY_REGIONS = List.of("products", "users", "users.orders", "orders");
+
+    private final Environment env;
+
+    public CacheConfig(Environment env) {
+        this.env = env;
+    }
+
+    @Bean
+    public ProductCache productCache(SingleFlight singleFlight) {
+        return new ProductCache(
+                Long.parseLong(env.getProperty("productstore.cache.products.maximum-size", "10000")),
+                Duration.ofSeconds(Long.parseLong(env.getProperty("productstore.cache.products.expire-after-write-seconds", "300"))),
+                singleFlight);
+    }
+
+    /**
+     * Shared by the services' get-by-id methods, so that a burst of requests for one id costs one load.
+     */
+    @Bean
+    public SingleFlight singleFlight(MeterRegistry meterRegistry) {
+        return new SingleFlight(meterRegistry);
+    }
+
+    /**
+     * Responses of keyed POSTs are replayed for {@code productstore.idempotency.ttl-seconds}; the most
+     * recent {@code productstore.idempotency.cache.maximum-size} of them are also kept in memory.
+     * Synchronous requests claim their key for {@code productstore.idempotency.claim-timeout-seconds}.
+     */
+    @Bean(destroyMethod = "close")
+    public IdempotencyStore idempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+                                             PlatformTransactionManager transactionManager) {
+        return new IdempotencyStore(idempotencyKeyRepository, transactionManager,
+                Duration.ofSeconds(env.getProperty("productstore.idempotency.ttl-seconds", Long.class, 86400L)),
+                Duration.ofSeconds(env.getProperty("productstore.idempotency.claim-timeout-seconds", Long.class, 60L)),
+                env.getProperty("productstore.idempotency.cache.maximum-size", Long.class, 10000L),
+                Duration.ofSeconds(env.getProperty("productstore.idempotency.purge-interval-seconds", Long.class, 3600L)));
+    }
+
+    /**
+     * One Caffeine-backed JCache per second-level cache region, bounded by
+     * {@code productstore.cache.entities.maximum-size} and expiring entries after
+     * {@code productstore.cache.entities.expire-after-write-seconds}. Either can be set per region as
+     * {@code productstore.cache.entities.<region>.maximum-size}. Hit and miss counts are published as
+     * {@code cache_gets} meters tagged with the region.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(MeterRegistry meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("productstore-entities"), getClass().getClassLoader());
+        long defaultMaximumSize = Long.parseLong(env.getProperty("productstore.cache.entities.maximum-size", "10000"));
+        long defaultExpireAfterWrite = Long.parseLong(env.getProperty("productstore.cache.entities.expire-after-write-seconds", "600"));
+        for (String region : ENTITY_REGIONS) {
+            String prefix = "productstore.cache.entities." + region;
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(
+                    env.getProperty(prefix + ".maximum-size", Long.class, defaultMaximumSize)));
+            configuration.setExpireAfterWrite(OptionalLong.of(Duration.ofSeconds(
+                    env.getProperty(prefix + ".expire-after-write-seconds", Long.class, defaultExpireAfterWrite)).toNanos()));
+            configuration.setStatisticsEnabled(true);
+            Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+            JCacheMetrics.monitor(meterRegistry, cache);
+        }
+        return cacheManager;
+    }
+}
@@ -1,11 +1,14 @@
 package productstore.config;
 
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
-import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
 
@@ -14,33 +17,85 @@ import javax.sql.DataSource;
 public class DataSourceConfig {
 
     private final Environment env;
+    private final MeterRegistry meterRegistry;
 
-    public DataSourceConfig(Environment env) {
+    public DataSourceConfig(Environment env, MeterRegistry meterRegistry) {
         this.env = env;
+        this.meterRegistry = meterRegistry;
     }
 
-    @Bean
-    public DataSource dataSource() {
+    @Bean(destroyMethod = "close")
+    public DataSource primaryDataSource() {
         System.out.println("spring.datasource.url: " + env.getProperty("spring.datasource.url"));
         System.out.println("spring.datasource.username: " + env.getProperty("spring.datasource.username"));
         System.out.println("spring.datasource.password: " + env.getProperty("spring.datasource.password"));
         System.out.println("spring.datasource.driver-class-name: " + env.getProperty("spring.datasource.driver-class-name"));
-        HikariDataSource dataSource = new HikariDataSource();
-        dataSource.setJdbcUrl(env.getProperty("spring.datasource.url"));
-        dataSource.setUsername(env.getProperty("spring.datasource.username"));
-        dataSource.setPassword(env.getProperty("spring.datasource.password"));
-        dataSource.setDriverClassName(env.getProperty("spring.datasource.driver-class-name"));
+        return limited(pool("spring.datasource", "primary", env.getProperty("spring.datasource.url")));
+    }
 
-        dataSource.setMaximumPoolSize(Integer.parseInt(env.getProperty("spring.datasource.hikari.maximum-pool-size", "10")));
-        dataSource.setConnectionTimeout(Long.parseLong(env.getProperty("spring.datasource.hikari.connection-timeout", "30000")));
-        dataSource.setIdleTimeout(Long.parseLong(env.getProperty("spring.datasource.hikari.idle-timeout", "60000")));
-        dataSource.setMaxLifetime(Long.parseLong(env.getProperty("spring.datasource.hikari.max-lifetime", "1800000")));
+    /**
+     * Read-only transactions go to the replica configured by {@code spring.datasource.replica.url}.
+     * Without one, or while the replica lags more than {@code productstore.datasource.replica.max-lag-ms}
+     * or cannot be reached, they fall back to the primary pool.
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSource replicaDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource) {
+        String replicaUrl = env.getProperty("spring.datasource.replica.url", "");
+        DataSource replica = replicaUrl.isBlank() ? null
+                : limited(pool("spring.datasource.replica", "replica", replicaUrl));
+        return new ReplicaDataSource(replica, primaryDataSource,
+                Long.parseLong(env.getProperty("productstore.datasource.replica.max-lag-ms", "5000")),
+                Long.parseLong(env.getProperty("productstore.datasource.replica.check-interval-ms", "1000")));
+    }
 
-        return dataSource;
+    /**
+     * Connections are fetched lazily, once the transaction has been marked read-only or not,
+     * so the proxy can pick the replica or the primary pool for it. Statements run through it
+     * are counted per request by {@link SqlMetricsFilter}.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return new SqlMetricsDataSource(dataSource);
     }
 
+    /**
+     * Brings the schema up to date on the primary before the entity manager factory is built.
+     */
     @Bean
-    public DataSourceTransactionManager transactionManager(DataSource dataSource) {
-        return new DataSourceTransactionManager(dataSource);
+    public MigrationRunner migrationRunner(@Qualifier("primaryDataSource") DataSource primaryDataSource) {
+        return new MigrationRunner(primaryDataSource);
+    }
+
+    /**
+     * With {@code productstore.virtual-threads} enabled, request threads are cheap and unbounded, so
+     * admission to each pool is capped explicitly at its size rather than left to the pool's hand-off queue.
+     */
+    private DataSource limited(HikariDataSource pool) {
+        if (!env.getProperty("productstore.virtual-threads", Boolean.class, false)) {
+            return pool;
+        }
+        return new ConnectionLimitingDataSource(pool, pool.getMaximumPoolSize(), pool.getConnectionTimeout());
+    }
+
+    private HikariDataSource pool(String prefix, String name, String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(env.getProperty(prefix + ".username", env.getProperty("spring.datasource.username")));
+        dataSource.setPassword(env.getProperty(prefix + ".password", env.getProperty("spring.datasource.password")));
+        dataSource.setDriverClassName(env.getProperty("spring.datasource.driver-class-name"));
+
+        dataSource.setMaximumPoolSize(Integer.parseInt(env.getProperty(prefix + ".hikari.maximum-pool-size", "10")));
+        dataSource.setConnectionTimeout(Long.parseLong(env.getProperty(prefix + ".hikari.connection-timeout", "30000")));
+        dataSource.setIdleTimeout(Long.parseLong(env.getProperty(prefix + ".hikari.idle-timeout", "60000")));
+        dataSource.setMaxLifetime(Long.parseLong(env.getProperty(prefix + ".hikari.max-lifetime", "1800000")));
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        dataSource.setMetricRegistry(meterRegistry);
+
+        return dataSource;
     }
 }
@@ -3,11 +3,14 @@ package productstore.config;
 import jakarta.persistence.EntityManagerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 
+import javax.cache.CacheManager;
 import javax.sql.DataSource;
 import java.util.Properties;
 
@@ -15,27 +18,63 @@ import java.util.Properties;
 @EnableJpaRepositories(basePackages = "productstore.repository")
 public class JpaConfig {
 
+    private final Environment env;
+
+    public JpaConfig(Environment env) {
+        this.env = env;
+    }
+
+    /**
+     * Entities and collections annotated with {@code @Cache} are kept in the second-level cache regions
+     * created by {@link CacheConfig#entityCacheManager}, unless {@code productstore.cache.entities.enabled}
+     * is false. Hibernate evicts the cached {@code User.orders} collection whenever an order changes.
+     * Entities loaded from the replica are not put into them, see {@link ReplicaJpaDialect}.
+     */
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+    @DependsOn("migrationRunner")
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource, CacheManager entityCacheManager,
+                                                                       ReplicaDataSource replicaDataSource) {
         LocalContainerEntityManagerFactoryBean emf = new LocalContainerEntityManagerFactoryBean();
         emf.setDataSource(dataSource);
         emf.setPackagesToScan("productstore.model");
 
         HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         emf.setJpaVendorAdapter(vendorAdapter);
+        emf.setJpaDialect(new ReplicaJpaDialect(replicaDataSource));
 
         Properties jpaProperties = new Properties();
         jpaProperties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
-        jpaProperties.put("hibernate.hbm2ddl.auto", "update");
-        jpaProperties.put("hibernate.show_sql", "true");
+        jpaProperties.put("hibernate.hbm2ddl.auto", env.getProperty("spring.jpa.hibernate.ddl-auto", "none"));
+        jpaProperties.put("hibernate.jdbc.batch_size", "50");
+        jpaProperties.put("hibernate.order_inserts", "true");
+        jpaProperties.put("hibernate.order_updates", "true");
+        if (env.getProperty("productstore.cache.entities.enabled", Boolean.class, true)) {
+            jpaProperties.put("hibernate.cache.use_second_level_cache", "true");
+            jpaProperties.put("hibernate.cache.region.factory_class", "jcache");
+            jpaProperties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            jpaProperties.put("hibernate.cache.auto_evict_collection_cache", "true");
+            jpaProperties.put("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        } else {
+            jpaProperties.put("hibernate.cache.use_second_level_cache", "false");
+        }
 
         emf.setJpaProperties(jpaProperties);
+        emf.getJpaPropertyMap().put("hibernate.javax.cache.cache_manager", entityCacheManager);
 
         return emf;
     }
 
+    /**
+     * The only transaction manager. It takes the {@code dataSource} and the Hibernate dialect from the
+     * entity manager factory, so JDBC code such as the bulk upsert joins the same transactions. For
+     * {@code @Transactional(readOnly = true)} the dialect switches the session to manual flushing and
+     * default read-only, so loaded entities keep no snapshots and are never dirty-checked, and marks
+     * the JDBC connection read-only, which routes it to the replica.
+     */
     @Bean
-    public JpaTransactionManager transactionManager(EntityManagerFactory emf) {
-        return new JpaTransactionManager(emf);
+    public JpaTransactionManager transactionManager(EntityManagerFactory emf, TransactionMetrics transactionMetrics) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(emf);
+        transactionManager.addListener(transactionMetrics);
+        return transactionManager;
     }
 }
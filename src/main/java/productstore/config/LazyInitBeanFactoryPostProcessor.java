@@ -0,0 +1,41 @@
+package productstore.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * With {@code productstore.lazy-init} enabled, the application's scanned components (controllers,
+ * services, mappers, repository fragments) are created on first use instead of at startup. Beans
+ * declared in this package, such as the data sources, the entity manager factory and the caches,
+ * stay eager so the first request does not pay for Hibernate bootstrap.
+ */
+public class LazyInitBeanFactoryPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private static final String APPLICATION_PACKAGE = "productstore.";
+    private static final String CONFIG_PACKAGE = "productstore.config.";
+
+    private Environment env;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.env = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        if (!env.getProperty("productstore.lazy-init", Boolean.class, false)) {
+            return;
+        }
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            String className = definition.getBeanClassName();
+            if (className != null && className.startsWith(APPLICATION_PACKAGE) && !className.startsWith(CONFIG_PACKAGE)
+                    && definition.getRole() == BeanDefinition.ROLE_APPLICATION) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package productstore.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmHeapPressureMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meters scraped from {@code /metrics}: JVM memory, GC, threads and CPU here, the connection pools
+ * in {@link DataSourceConfig}, request latency via {@link RequestMetricsInterceptor} and transaction
+ * outcomes via {@link TransactionMetrics}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public PrometheusMeterRegistry meterRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        new ClassLoaderMetrics().bindTo(registry);
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        return registry;
+    }
+
+    @Bean(destroyMethod = "close")
+    public JvmGcMetrics jvmGcMetrics(MeterRegistry meterRegistry) {
+        JvmGcMetrics gcMetrics = new JvmGcMetrics();
+        gcMetrics.bindTo(meterRegistry);
+        return gcMetrics;
+    }
+
+    @Bean(destroyMethod = "close")
+    public JvmHeapPressureMetrics jvmHeapPressureMetrics(MeterRegistry meterRegistry) {
+        JvmHeapPressureMetrics heapPressureMetrics = new JvmHeapPressureMetrics();
+        heapPressureMetrics.bindTo(meterRegistry);
+        return heapPressureMetrics;
+    }
+
+    @Bean
+    public RequestMetricsInterceptor requestMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new RequestMetricsInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public TransactionMetrics transactionMetrics(MeterRegistry meterRegistry) {
+        return new TransactionMetrics(meterRegistry);
+    }
+}
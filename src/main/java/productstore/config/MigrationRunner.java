@@ -0,0 +1,173 @@
+package productstore.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned scripts in {@code db/migration} ({@code V<version>__<description>.sql}) in
+ * version order, each in its own transaction, and records them with their checksums in
+ * {@code schema_migrations}. When every script is already recorded with a matching checksum the
+ * runner returns after a single query; otherwise it takes a Postgres advisory lock first, so that
+ * of several nodes starting together only one migrates and the others find the work done.
+ */
+public class MigrationRunner implements InitializingBean {
+
+    static final String LOCATION = "classpath*:db/migration/V*__*.sql";
+
+    private static final Log logger = LogFactory.getLog(MigrationRunner.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final String CREATE_HISTORY = "CREATE TABLE IF NOT EXISTS schema_migrations ("
+            + "version INT PRIMARY KEY, description VARCHAR(200) NOT NULL, checksum BIGINT NOT NULL, "
+            + "applied_at TIMESTAMPTZ NOT NULL DEFAULT now())";
+
+    private static final String LOCK = "SELECT pg_advisory_lock(hashtext('productstore.schema_migrations'))";
+
+    private static final String UNLOCK = "SELECT pg_advisory_unlock(hashtext('productstore.schema_migrations'))";
+
+    private final DataSource dataSource;
+
+    public MigrationRunner(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException, IOException {
+        List<Migration> migrations = load();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            if (isUpToDate(connection, migrations)) {
+                return;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(LOCK);
+            }
+            try {
+                migrate(connection, migrations);
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(UNLOCK);
+                }
+            }
+        }
+    }
+
+    static List<Migration> load() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            Matcher matcher = FILE_NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Unexpected migration file name " + resource.getFilename());
+            }
+            String sql = resource.getContentAsString(StandardCharsets.UTF_8);
+            CRC32 checksum = new CRC32();
+            checksum.update(sql.getBytes(StandardCharsets.UTF_8));
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    resource.getFilename(), sql, checksum.getValue()));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new IllegalStateException("Duplicate migration version " + migrations.get(i).version());
+            }
+        }
+        return migrations;
+    }
+
+    private boolean isUpToDate(Connection connection, List<Migration> migrations) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT to_regclass('schema_migrations') IS NOT NULL")) {
+            resultSet.next();
+            if (!resultSet.getBoolean(1)) {
+                return false;
+            }
+        }
+        Map<Integer, Long> applied = applied(connection);
+        for (Migration migration : migrations) {
+            if (!verify(migration, applied)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void migrate(Connection connection, List<Migration> migrations) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_HISTORY);
+        }
+        Map<Integer, Long> applied = applied(connection);
+        for (Migration migration : migrations) {
+            if (verify(migration, applied)) {
+                continue;
+            }
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement();
+                 PreparedStatement record = connection.prepareStatement(
+                         "INSERT INTO schema_migrations (version, description, checksum) VALUES (?, ?, ?)")) {
+                statement.execute(migration.sql());
+                record.setInt(1, migration.version());
+                record.setString(2, migration.description());
+                record.setLong(3, migration.checksum());
+                record.executeUpdate();
+                connection.commit();
+                logger.info("Applied migration " + migration.fileName());
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw new IllegalStateException("Migration " + migration.fileName() + " failed", ex);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static Map<Integer, Long> applied(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (resultSet.next()) {
+                applied.put(resultSet.getInt(1), resultSet.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Returns whether the migration has been applied, failing if it was changed since.
+     */
+    private static boolean verify(Migration migration, Map<Integer, Long> applied) {
+        Long checksum = applied.get(migration.version());
+        if (checksum == null) {
+            return false;
+        }
+        if (checksum != migration.checksum()) {
+            throw new IllegalStateException("Migration " + migration.fileName()
+                    + " was changed after it was applied (checksum " + checksum + " recorded, "
+                    + migration.checksum() + " found)");
+        }
+        return true;
+    }
+
+    record Migration(int version, String description, String fileName, String sql, long checksum) {
+    }
+}
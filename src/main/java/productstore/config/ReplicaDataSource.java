@@ -0,0 +1,105 @@
+package productstore.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.function.LongSupplier;
+
+/**
+ * Source of connections for read-only transactions. Hands out replica connections while the replica
+ * is reachable and no further behind the primary than the tolerated lag, and primary connections
+ * otherwise. Lag is sampled at most once per check interval, on a replica connection that is being
+ * borrowed anyway; an unusable replica is retried after the same interval.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    static final String LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final LongSupplier clock;
+
+    private volatile boolean replicaUsable = true;
+    private volatile long nextCheckAt;
+
+    public ReplicaDataSource(DataSource replica, DataSource primary, long maxLagMillis, long checkIntervalMillis) {
+        this(replica, primary, maxLagMillis, checkIntervalMillis, System::currentTimeMillis);
+    }
+
+    ReplicaDataSource(DataSource replica, DataSource primary, long maxLagMillis, long checkIntervalMillis,
+                      LongSupplier clock) {
+        this.replica = replica;
+        this.primary = primary;
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.clock = clock;
+    }
+
+    public boolean hasReplica() {
+        return replica != null;
+    }
+
+    public boolean isReplicaUsable() {
+        return replica != null && replicaUsable;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        long now = clock.getAsLong();
+        boolean checkDue = now >= nextCheckAt;
+        if (!checkDue && !replicaUsable) {
+            return primary.getConnection();
+        }
+        if (checkDue) {
+            nextCheckAt = now + checkIntervalMillis;
+        }
+
+        Connection connection;
+        try {
+            connection = replica.getConnection();
+        } catch (SQLException ex) {
+            replicaUsable = false;
+            return primary.getConnection();
+        }
+        if (checkDue) {
+            replicaUsable = isWithinToleratedLag(connection);
+            if (!replicaUsable) {
+                connection.close();
+                return primary.getConnection();
+            }
+        }
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("ReplicaDataSource only hands out connections of its configured pools");
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (replica instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private boolean isWithinToleratedLag(Connection connection) {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            return resultSet.next() && resultSet.getDouble(1) <= maxLagMillis;
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+}
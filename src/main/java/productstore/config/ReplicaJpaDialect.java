@@ -0,0 +1,34 @@
+package productstore.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps rows read from a lagging replica out of the second-level cache: while a replica is configured,
+ * read-only transactions read cached entities but do not put the ones they load. Otherwise a read
+ * right after an eviction could cache the replica's old row for the region's whole expiry. Entries
+ * are still put by read-write transactions, which always run on the primary.
+ */
+public class ReplicaJpaDialect extends HibernateJpaDialect {
+
+    private final ReplicaDataSource replicaDataSource;
+
+    public ReplicaJpaDialect(ReplicaDataSource replicaDataSource) {
+        this.replicaDataSource = replicaDataSource;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (definition.isReadOnly() && replicaDataSource.hasReplica()) {
+            getSession(entityManager).setCacheMode(CacheMode.GET);
+        }
+        return transactionData;
+    }
+}
@@ -0,0 +1,80 @@
+package productstore.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of each {@code @RequestMapping} method into a histogram tagged with its URI
+ * pattern, HTTP method and status class. Timers are created on a handler's first response per
+ * status class; later requests only look them up. Asynchronous requests are timed from their
+ * first dispatch to the completion of the last one.
+ */
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    static final String METER = "http.server.requests";
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private final MeterRegistry registry;
+    private final Map<Method, Timer[]> timersByHandler = new ConcurrentHashMap<>();
+
+    public RequestMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.isAsyncStarted()
+                || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+        timer(handlerMethod.getMethod(), request, status).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(Method method, HttpServletRequest request, int status) {
+        Timer[] timers = timersByHandler.get(method);
+        if (timers == null) {
+            timers = timersByHandler.computeIfAbsent(method, key -> new Timer[6]);
+        }
+        int statusClass = Math.min(Math.max(status / 100, 0), 5);
+        Timer timer = timers[statusClass];
+        if (timer == null) {
+            timer = register(request, statusClass);
+            timers[statusClass] = timer;
+        }
+        return timer;
+    }
+
+    private Timer register(HttpServletRequest request, int statusClass) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return Timer.builder(METER)
+                .description("Request latency by handler mapping")
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .tag("method", request.getMethod())
+                .tag("status", statusClass + "xx")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+}
@@ -0,0 +1,79 @@
+package productstore.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL statements, rows and JDBC execution time accumulated for the request on the current thread.
+ * {@link SqlMetricsFilter} opens one per request and {@link SqlMetricsDataSource} records into it.
+ */
+public final class SqlMetrics {
+
+    private static final ThreadLocal<SqlMetrics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long nanos;
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+    static SqlMetrics start() {
+        SqlMetrics metrics = new SqlMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static SqlMetrics current() {
+        return CURRENT.get();
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    void recordExecution(String sql, long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+        if (sql != null) {
+            executionsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void recordRows(long count) {
+        rows += count;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public double getMillis() {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * The statement executed most often in this request, which is the usual signature of an N+1
+     * pattern, or {@code null} if none ran more than once.
+     */
+    public Map.Entry<String, Integer> getMostRepeated() {
+        Map.Entry<String, Integer> mostRepeated = null;
+        for (Map.Entry<String, Integer> entry : executionsBySql.entrySet()) {
+            if (entry.getValue() > 1 && (mostRepeated == null || entry.getValue() > mostRepeated.getValue())) {
+                mostRepeated = entry;
+            }
+        }
+        return mostRepeated;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlMetrics{" +
+                "statements=" + statements +
+                ", rows=" + rows +
+                ", millis=" + getMillis() +
+                '}';
+    }
+}
@@ -0,0 +1,124 @@
+package productstore.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Records statement executions, their JDBC time and the rows they read or changed into the
+ * current request's {@link SqlMetrics}. Statements created outside a request are not wrapped.
+ */
+public class SqlMetricsDataSource extends DelegatingDataSource {
+
+    public SqlMetricsDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return measuring(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return measuring(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection measuring(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getTargetConnection":
+                            return connection;
+                        default:
+                            Object result = invoke(connection, method, args);
+                            SqlMetrics metrics = SqlMetrics.current();
+                            if (metrics != null && result instanceof Statement statement) {
+                                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                                return measuring(statement, method.getReturnType(), sql, metrics);
+                            }
+                            return result;
+                    }
+                });
+    }
+
+    private Statement measuring(Statement statement, Class<?> type, String preparedSql, SqlMetrics metrics) {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{type}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    switch (name) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getResultSet":
+                            Object current = invoke(statement, method, args);
+                            return current == null ? null : counting((ResultSet) current, metrics);
+                        default:
+                            if (!name.startsWith("execute")) {
+                                return invoke(statement, method, args);
+                            }
+                            long start = System.nanoTime();
+                            Object result = invoke(statement, method, args);
+                            String sql = preparedSql != null ? preparedSql
+                                    : args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                            metrics.recordExecution(sql, System.nanoTime() - start);
+                            if (result instanceof ResultSet resultSet) {
+                                return counting(resultSet, metrics);
+                            }
+                            if (result instanceof Number count && count.longValue() > 0) {
+                                metrics.recordRows(count.longValue());
+                            } else if (result instanceof int[] counts) {
+                                for (int count : counts) {
+                                    metrics.recordRows(Math.max(count, 0));
+                                }
+                            } else if (result instanceof long[] counts) {
+                                for (long count : counts) {
+                                    metrics.recordRows(Math.max(count, 0));
+                                }
+                            }
+                            return result;
+                    }
+                });
+    }
+
+    private ResultSet counting(ResultSet resultSet, SqlMetrics metrics) {
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "next":
+                            boolean hasRow = resultSet.next();
+                            if (hasRow) {
+                                metrics.recordRows(1);
+                            }
+                            return hasRow;
+                        default:
+                            return invoke(resultSet, method, args);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package productstore.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Opens {@link SqlMetrics} for each request, reports them in a {@code Server-Timing} header and a
+ * {@code sql ...} DEBUG log line, and logs requests that run more statements than
+ * {@code productstore.sql.statement-budget} at WARN instead. The header is written when the response body is
+ * started, so it covers the statements run while handling the request but not any run while the
+ * body streams; the log line covers everything on the request thread.
+ */
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    private static final Log logger = LogFactory.getLog(SqlMetricsFilter.class);
+
+    private final int statementBudget;
+
+    public SqlMetricsFilter(int statementBudget) {
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlMetrics metrics = SqlMetrics.start();
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response, metrics);
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            SqlMetrics.clear();
+            timedResponse.writeHeader();
+            log(request, response.getStatus(), metrics);
+        }
+    }
+
+    static String serverTiming(SqlMetrics metrics) {
+        return String.format(Locale.ROOT, "db;dur=%.2f;desc=\"%d statements, %d rows\"",
+                metrics.getMillis(), metrics.getStatements(), metrics.getRows());
+    }
+
+    private void log(HttpServletRequest request, int status, SqlMetrics metrics) {
+        if (metrics.getStatements() == 0) {
+            return;
+        }
+        boolean overBudget = metrics.getStatements() > statementBudget;
+        if (overBudget ? !logger.isWarnEnabled() : !logger.isDebugEnabled()) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT,
+                "sql method=%s uri=%s status=%d statements=%d rows=%d db_ms=%.2f budget=%d over_budget=%b",
+                request.getMethod(), request.getRequestURI(), status, metrics.getStatements(),
+                metrics.getRows(), metrics.getMillis(), statementBudget, overBudget));
+        Map.Entry<String, Integer> mostRepeated = metrics.getMostRepeated();
+        if (overBudget && mostRepeated != null) {
+            line.append(" repeated=").append(mostRepeated.getValue())
+                    .append(" repeated_sql=\"").append(mostRepeated.getKey().replace('"', '\'')).append('"');
+        }
+        if (overBudget) {
+            logger.warn(line);
+        } else {
+            logger.debug(line);
+        }
+    }
+
+    /**
+     * Adds the header just before the response commits, while headers can still be set.
+     */
+    private static class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final SqlMetrics metrics;
+        private boolean headerWritten;
+
+        ServerTimingResponse(HttpServletResponse response, SqlMetrics metrics) {
+            super(response);
+            this.metrics = metrics;
+        }
+
+        void writeHeader() {
+            if (!headerWritten && !isCommitted()) {
+                setHeader(HEADER, serverTiming(metrics));
+            }
+            headerWritten = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
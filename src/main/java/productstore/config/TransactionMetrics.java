@@ -0,0 +1,61 @@
+package productstore.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts commits, rollbacks and failed commits of each transactional service method, named by the
+ * transaction, such as {@code OrderServiceImpl.saveOrder}. Counters are created on a method's first
+ * transaction and looked up without allocating afterwards.
+ */
+public class TransactionMetrics implements TransactionExecutionListener {
+
+    static final String METER = "productstore.transactions";
+
+    private static final int COMMIT = 0;
+    private static final int ROLLBACK = 1;
+    private static final int COMMIT_FAILURE = 2;
+
+    private final MeterRegistry registry;
+    private final Map<String, Counter[]> countersByTransaction = new ConcurrentHashMap<>();
+
+    public TransactionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        counters(transaction)[commitFailure == null ? COMMIT : COMMIT_FAILURE].increment();
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        counters(transaction)[ROLLBACK].increment();
+    }
+
+    private Counter[] counters(TransactionExecution transaction) {
+        String name = Objects.requireNonNullElse(transaction.getTransactionName(), "");
+        Counter[] counters = countersByTransaction.get(name);
+        return counters != null ? counters : countersByTransaction.computeIfAbsent(name, this::register);
+    }
+
+    private Counter[] register(String transactionName) {
+        int lastDot = transactionName.lastIndexOf('.', transactionName.lastIndexOf('.') - 1);
+        String method = transactionName.isEmpty() ? "unnamed" : transactionName.substring(lastDot + 1);
+        return new Counter[]{counter(method, "commit"), counter(method, "rollback"), counter(method, "commit_failure")};
+    }
+
+    private Counter counter(String method, String outcome) {
+        return Counter.builder(METER)
+                .description("Completed transactions by service method and outcome")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -1,10 +1,13 @@
 package productstore.config;
 
+import jakarta.servlet.FilterRegistration;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletRegistration;
 import org.springframework.web.WebApplicationInitializer;
 import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.filter.DelegatingFilterProxy;
 import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FrameworkServlet;
 
 public class WebAppInitializer implements WebApplicationInitializer {
 
@@ -12,10 +15,21 @@ public class WebAppInitializer implements WebApplicationInitializer {
     public void onStartup(ServletContext servletContext) {
 
         AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        // A second bean of the same name, such as another transactionManager, fails startup instead of
+        // silently replacing the first one depending on registration order.
+        context.setAllowBeanDefinitionOverriding(false);
         context.register(AppConfig.class);
 
         ServletRegistration.Dynamic dispatcher = servletContext.addServlet("springDispatcherServlet", new DispatcherServlet(context));
         dispatcher.setLoadOnStartup(1);
+        dispatcher.setAsyncSupported(true);
         dispatcher.addMapping("/");
+
+        // Resolved from the dispatcher's context on the first request, once that context is running.
+        DelegatingFilterProxy sqlMetricsFilter = new DelegatingFilterProxy("sqlMetricsFilter");
+        sqlMetricsFilter.setContextAttribute(FrameworkServlet.SERVLET_CONTEXT_PREFIX + "springDispatcherServlet");
+        FilterRegistration.Dynamic sqlMetrics = servletContext.addFilter("sqlMetricsFilter", sqlMetricsFilter);
+        sqlMetrics.setAsyncSupported(true);
+        sqlMetrics.addMappingForServletNames(null, false, "springDispatcherServlet");
     }
 }
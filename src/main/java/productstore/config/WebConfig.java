@@ -1,10 +1,18 @@
 package productstore.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import productstore.controller.FieldFilter;
 
 import java.util.List;
 
@@ -12,8 +20,47 @@ import java.util.List;
 @EnableWebMvc
 public class WebConfig implements WebMvcConfigurer {
 
+    private final Environment env;
+    private final RequestMetricsInterceptor requestMetricsInterceptor;
+
+    public WebConfig(Environment env, RequestMetricsInterceptor requestMetricsInterceptor) {
+        this.env = env;
+        this.requestMetricsInterceptor = requestMetricsInterceptor;
+    }
+
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        converters.add(new MappingJackson2HttpMessageConverter());
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper()));
+    }
+
+    /**
+     * The mapper JSON responses are written with.
+     */
+    public static ObjectMapper objectMapper() {
+        return FieldFilter.register(Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestMetricsInterceptor);
+    }
+
+    @Bean
+    public SqlMetricsFilter sqlMetricsFilter() {
+        return new SqlMetricsFilter(env.getProperty("productstore.sql.statement-budget", Integer.class, 20));
+    }
+
+    /**
+     * Requests themselves run on the servlet container's threads; in virtual-thread mode the
+     * container is configured for virtual threads and async handlers such as the order export
+     * get one as well.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (env.getProperty("productstore.virtual-threads", Boolean.class, false)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+            executor.setVirtualThreads(true);
+            configurer.setTaskExecutor(executor);
+        }
     }
 }
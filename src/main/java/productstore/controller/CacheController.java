@@ -0,0 +1,28 @@
+package productstore.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import productstore.controller.dto.output.CacheStatsOutputDTO;
+import productstore.service.cache.ProductCache;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final ProductCache productCache;
+
+    public CacheController(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<CacheStatsOutputDTO> getProductCacheStats() {
+        CacheStats stats = productCache.stats();
+        return new ResponseEntity<>(new CacheStatsOutputDTO(productCache.size(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate()), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,32 @@
+package productstore.controller;
+
+import org.springframework.http.ETag;
+
+import java.util.HashSet;
+import java.util.Set;
+
+final class ETags {
+
+    private ETags() {}
+
+    /**
+     * The strong tags listed in an {@code If-Match} header, or {@code null} when the header is
+     * absent or {@code *}. Weak tags never match an {@code If-Match} precondition, so a header with
+     * only weak tags yields an empty set.
+     */
+    static Set<String> ifMatch(String header) {
+        if (header == null) {
+            return null;
+        }
+        Set<String> tags = new HashSet<>();
+        for (ETag etag : ETag.parse(header)) {
+            if (etag.isWildcard()) {
+                return null;
+            }
+            if (!etag.weak()) {
+                tags.add(etag.tag());
+            }
+        }
+        return tags;
+    }
+}
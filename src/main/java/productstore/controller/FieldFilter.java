@@ -0,0 +1,55 @@
+package productstore.controller;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import productstore.controller.dto.output.OrderOutputDTO;
+import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.controller.dto.output.UserOutputDTO;
+import productstore.service.FieldSet;
+
+/**
+ * Writes only the selected properties of one output type and everything else unchanged, so that
+ * {@code /api/orders?fields=id,user} still writes the whole embedded user.
+ */
+public class FieldFilter extends SimpleBeanPropertyFilter {
+
+    static final String ID = "fields";
+
+    private final Class<?> type;
+    private final FieldSet fields;
+
+    public FieldFilter(Class<?> type, FieldSet fields) {
+        this.type = type;
+        this.fields = fields;
+    }
+
+    /**
+     * Attaches the filter to the output DTOs through mix-ins rather than on the classes themselves,
+     * so that other mappers (NDJSON export, tests) keep serializing them without a filter provider.
+     */
+    public static ObjectMapper register(ObjectMapper objectMapper) {
+        return objectMapper
+                .addMixIn(ProductOutputDTO.class, Filtered.class)
+                .addMixIn(UserOutputDTO.class, Filtered.class)
+                .addMixIn(OrderOutputDTO.class, Filtered.class)
+                .setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer) throws Exception {
+        if (pojo.getClass() != type || fields.includes(writer.getName())) {
+            writer.serializeAsField(pojo, gen, provider);
+        } else if (!gen.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, gen, provider);
+        }
+    }
+
+    @JsonFilter(ID)
+    interface Filtered {
+    }
+}
@@ -0,0 +1,64 @@
+package productstore.controller;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+import productstore.controller.dto.output.OrderOutputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
+import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.controller.dto.output.UserOutputDTO;
+import productstore.service.FieldSet;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the {@code fields} query parameter to responses of the product, user and order GET
+ * endpoints, whether they return one resource or a page of them.
+ */
+@RestControllerAdvice
+public class FieldSelectionAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    private static final Map<Class<?>, List<String>> FIELDS = Map.of(
+            ProductOutputDTO.class, ProductOutputDTO.FIELDS,
+            UserOutputDTO.class, UserOutputDTO.FIELDS,
+            OrderOutputDTO.class, OrderOutputDTO.FIELDS);
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (request.getMethod() != HttpMethod.GET || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter("fields");
+        Class<?> type = resourceType(returnType);
+        List<String> allowed = FIELDS.get(type);
+        if (fields == null || allowed == null) {
+            return;
+        }
+        FieldSet selected = FieldSet.parse(fields, allowed);
+        if (!selected.isAll()) {
+            bodyContainer.setFilters(new SimpleFilterProvider().addFilter(FieldFilter.ID, new FieldFilter(type, selected)));
+        }
+    }
+
+    private static Class<?> resourceType(MethodParameter returnType) {
+        ResolvableType type = ResolvableType.forMethodParameter(returnType);
+        if (ResponseEntity.class.isAssignableFrom(type.toClass())) {
+            type = type.getGeneric(0);
+        }
+        if (PageOutputDTO.class.isAssignableFrom(type.toClass())) {
+            type = type.getGeneric(0);
+        }
+        return type.toClass();
+    }
+}
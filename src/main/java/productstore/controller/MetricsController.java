@@ -0,0 +1,26 @@
+package productstore.controller;
+
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+public class MetricsController {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrometheusMeterRegistry meterRegistry;
+
+    public MetricsController(PrometheusMeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @GetMapping("/metrics")
+    public void scrape(HttpServletResponse response) throws IOException {
+        response.setContentType(CONTENT_TYPE);
+        meterRegistry.scrape(response.getOutputStream(), CONTENT_TYPE);
+    }
+}
@@ -1,35 +1,87 @@
 package productstore.controller;
 
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import productstore.controller.dto.input.OrderInputDTO;
 import productstore.controller.dto.input.ProductIdsDTO;
 import productstore.controller.dto.output.OrderOutputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.mapper.OrderMapper;
+import productstore.service.FieldSet;
+import productstore.service.OrderIngestService;
 import productstore.service.OrderService;
+import productstore.service.Pagination;
+import productstore.service.idempotency.IdempotencyStore;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIngestService orderIngestService;
+    private final IdempotencyStore idempotencyStore;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderIngestService orderIngestService,
+                           IdempotencyStore idempotencyStore) {
         this.orderService = orderService;
+        this.orderIngestService = orderIngestService;
+        this.idempotencyStore = idempotencyStore;
     }
 
+    /**
+     * With group-commit ingestion enabled the request thread is released while the order waits for
+     * its batch, and the response carries only the new order's id. A retry with the same
+     * {@code Idempotency-Key} gets the first response back without creating another order.
+     */
     @PostMapping
-    public OrderOutputDTO saveOrder(@Valid @RequestBody OrderInputDTO orderInputDTO) {
-        return orderService.saveOrder(orderInputDTO);
+    public CompletableFuture<OrderOutputDTO> saveOrder(@Valid @RequestBody OrderInputDTO orderInputDTO,
+                                                       @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return save(orderInputDTO);
+        }
+        if (!orderIngestService.isEnabled()) {
+            return CompletableFuture.completedFuture(idempotencyStore.execute("orders", idempotencyKey, orderInputDTO,
+                    OrderOutputDTO.class, () -> orderService.saveOrder(orderInputDTO)));
+        }
+        return idempotencyStore.executeAsync("orders", idempotencyKey, orderInputDTO, OrderOutputDTO.class,
+                () -> save(orderInputDTO));
+    }
+
+    private CompletableFuture<OrderOutputDTO> save(OrderInputDTO orderInputDTO) {
+        if (!orderIngestService.isEnabled()) {
+            return CompletableFuture.completedFuture(orderService.saveOrder(orderInputDTO));
+        }
+        return orderIngestService.submit(orderInputDTO).thenApply(id -> new OrderOutputDTO(id, null, null));
     }
 
     @GetMapping
-    public List<OrderOutputDTO> getAllOrder() {
-        return orderService.getAllOrders();
+    public PageOutputDTO<OrderOutputDTO> getAllOrder(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "" + Pagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return orderService.getAllOrders(after, limit, FieldSet.parse(fields, OrderOutputDTO.FIELDS));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = outputStream -> orderService.exportOrders(order -> {
+            try {
+                Ndjson.MAPPER.writeValue(outputStream, order);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(Ndjson.MEDIA_TYPE).body(body);
     }
 
     @DeleteMapping("/{id}")
@@ -38,13 +90,23 @@ public class OrderController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * A matching {@code If-None-Match} costs one query over the version columns; the order itself is
+     * only loaded for a 200. The tag is read first, so the body sent with it is never older than it.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<OrderOutputDTO> getOrderById(@PathVariable("id") Long id) {
-        return new ResponseEntity<>(orderService.getOrderById(id), HttpStatus.OK);
+    public ResponseEntity<OrderOutputDTO> getOrderById(@PathVariable("id") Long id, WebRequest request) {
+        String versionTag = orderService.getOrderVersionTag(id);
+        if (request.checkNotModified(versionTag)) {
+            return null;
+        }
+        return new ResponseEntity<>(orderService.getOrderById(id, versionTag), HttpStatus.OK);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<OrderOutputDTO> updateOrderById(@PathVariable("id") Long id, @Valid @RequestBody ProductIdsDTO productIdsDTO) {
-        return new ResponseEntity<>(orderService.updateOrderById(id, productIdsDTO), HttpStatus.CREATED);
+    public ResponseEntity<OrderOutputDTO> updateOrderById(@PathVariable("id") Long id, @Valid @RequestBody ProductIdsDTO productIdsDTO,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        OrderOutputDTO order = orderService.updateOrderById(id, productIdsDTO, ETags.ifMatch(ifMatch));
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(order.getVersionTag()).body(order);
     }
 }
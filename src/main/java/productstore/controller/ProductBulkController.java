@@ -0,0 +1,40 @@
+package productstore.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import productstore.controller.dto.input.ProductBulkInputDTO;
+import productstore.controller.dto.output.ProductBulkResultDTO;
+import productstore.service.ProductBulkService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products/bulk")
+public class ProductBulkController {
+
+    private final ProductBulkService productBulkService;
+
+    public ProductBulkController(ProductBulkService productBulkService) {
+        this.productBulkService = productBulkService;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ProductBulkResultDTO>> saveProducts(@RequestBody List<ProductBulkInputDTO> products) {
+        return new ResponseEntity<>(productBulkService.saveProducts(products.iterator()), HttpStatus.OK);
+    }
+
+    @PostMapping(consumes = Ndjson.MEDIA_TYPE_VALUE)
+    public ResponseEntity<List<ProductBulkResultDTO>> saveProductsNdjson(InputStream body) throws IOException {
+        try (MappingIterator<ProductBulkInputDTO> products = Ndjson.MAPPER.readerFor(ProductBulkInputDTO.class).readValues(body)) {
+            return new ResponseEntity<>(productBulkService.saveProducts(products), HttpStatus.OK);
+        }
+    }
+}
@@ -1,38 +1,59 @@
 package productstore.controller;
 
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import productstore.controller.dto.input.ProductInputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.service.FieldSet;
+import productstore.service.Pagination;
 import productstore.service.ProductService;
-
-import java.util.List;
+import productstore.service.idempotency.IdempotencyStore;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductService productService;
+    private final IdempotencyStore idempotencyStore;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, IdempotencyStore idempotencyStore) {
         this.productService = productService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductOutputDTO>> getAllProducts() {
-        return new ResponseEntity<>(productService.getAllProducts(), HttpStatus.OK);
+    public ResponseEntity<PageOutputDTO<ProductOutputDTO>> getAllProducts(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "" + Pagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return new ResponseEntity<>(productService.getAllProducts(after, limit, FieldSet.parse(fields, ProductOutputDTO.FIELDS)), HttpStatus.OK);
     }
 
     @PostMapping
-    public ResponseEntity<ProductOutputDTO> saveProduct(@Valid @RequestBody ProductInputDTO productInputDTO) {
-        return new ResponseEntity<>(productService.saveProduct(productInputDTO), HttpStatus.CREATED);
+    public ResponseEntity<ProductOutputDTO> saveProduct(@Valid @RequestBody ProductInputDTO productInputDTO,
+                                                        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        ProductOutputDTO product = idempotencyKey == null ? productService.saveProduct(productInputDTO)
+                : idempotencyStore.execute("products", idempotencyKey, productInputDTO, ProductOutputDTO.class,
+                        () -> productService.saveProduct(productInputDTO));
+        return new ResponseEntity<>(product, HttpStatus.CREATED);
     }
 
+    /**
+     * The product usually comes from the cache, and a matching {@code If-None-Match} is answered
+     * with 304 before anything is serialized.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductOutputDTO> getProductById(@PathVariable("id") Long id) {
-        return new ResponseEntity<>(productService.getProductById(id), HttpStatus.OK);
+    public ResponseEntity<ProductOutputDTO> getProductById(@PathVariable("id") Long id, WebRequest request) {
+        ProductOutputDTO product = productService.getProductById(id);
+        if (request.checkNotModified(String.valueOf(product.getVersion()))) {
+            return null;
+        }
+        return new ResponseEntity<>(product, HttpStatus.OK);
     }
 
     @DeleteMapping("/{id}")
@@ -42,8 +63,10 @@ public class ProductController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ProductOutputDTO> updateProductById(@PathVariable("id") Long id, @Valid @RequestBody ProductInputDTO productInputDTO) {
-        return new ResponseEntity<>(productService.updateProductById(id, productInputDTO), HttpStatus.ACCEPTED);
+    public ResponseEntity<ProductOutputDTO> updateProductById(@PathVariable("id") Long id, @Valid @RequestBody ProductInputDTO productInputDTO,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductOutputDTO product = productService.updateProductById(id, productInputDTO, ETags.ifMatch(ifMatch));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).eTag(String.valueOf(product.getVersion())).body(product);
     }
 
 }
@@ -6,29 +6,47 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import productstore.controller.dto.input.UserChangeEmailDTO;
 import productstore.controller.dto.input.UserInputDTO;
+import productstore.controller.dto.output.OrderOutputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.UserOutputDTO;
+import productstore.service.FieldSet;
+import productstore.service.OrderService;
+import productstore.service.Pagination;
 import productstore.service.UserService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final OrderService orderService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, OrderService orderService) {
         this.userService = userService;
+        this.orderService = orderService;
     }
 
     @GetMapping
-    public ResponseEntity<List<UserOutputDTO>> getAllUsers() {
-        return new ResponseEntity<>(userService.getAllUsers(), HttpStatus.OK);
+    public ResponseEntity<PageOutputDTO<UserOutputDTO>> getAllUsers(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "" + Pagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return new ResponseEntity<>(userService.getAllUsers(after, limit, FieldSet.parse(fields, UserOutputDTO.FIELDS)), HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserOutputDTO> getUserById(@PathVariable("id") Long id) {
-        return new ResponseEntity<>(userService.getUserById(id), HttpStatus.OK);
+    public ResponseEntity<UserOutputDTO> getUserById(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return new ResponseEntity<>(userService.getUserById(id, FieldSet.parse(fields, UserOutputDTO.FIELDS)), HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/orders")
+    public ResponseEntity<PageOutputDTO<OrderOutputDTO>> getUserOrders(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "" + Pagination.DEFAULT_LIMIT) int limit) {
+        return new ResponseEntity<>(orderService.getOrdersByUserId(id, after, limit), HttpStatus.OK);
     }
 
     @PostMapping
@@ -0,0 +1,58 @@
+package productstore.controller.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import productstore.model.Cents;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Writes amounts in cents as JSON numbers with two decimals, {@code 1250} as {@code 12.50}, and reads
+ * them back without going through {@code double}. Amounts with non-zero digits below a cent are
+ * rejected rather than rounded.
+ */
+public final class CentsJson {
+
+    private CentsJson() {}
+
+    public static class Serializer extends StdSerializer<Long> {
+
+        public Serializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long cents, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            char[] buffer = new char[Cents.MAX_LENGTH];
+            int start = Cents.format(cents, buffer);
+            generator.writeNumber(buffer, start, buffer.length - start);
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<Long> {
+
+        public Deserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+                return (Long) context.handleUnexpectedToken(Long.class, parser);
+            }
+            BigDecimal amount = parser.getDecimalValue();
+            try {
+                return Cents.fromDecimal(amount);
+            } catch (ArithmeticException e) {
+                throw context.weirdNumberException(amount, Long.class, "not a whole number of cents");
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package productstore.controller.dto.input;
+
+import productstore.model.Cents;
+
+public class ProductBulkInputDTO extends ProductInputDTO {
+
+    private Long id;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBulkInputDTO{" +
+                "id=" + id +
+                ", name='" + getName() + '\'' +
+                ", price=" + Cents.toString(getPrice()) +
+                '}';
+    }
+}
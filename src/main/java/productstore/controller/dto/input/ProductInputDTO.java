@@ -1,8 +1,13 @@
 package productstore.controller.dto.input;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
+import productstore.controller.dto.CentsJson;
+import productstore.model.Cents;
 
 public class ProductInputDTO {
 
@@ -10,8 +15,12 @@ public class ProductInputDTO {
     @Size(min = 2, max = 100, message = "Product name must be between 2 and 100 characters")
     private String name;
 
+    // In cents, written and read as a decimal number; the column is DECIMAL(10, 2).
     @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
-    private double price;
+    @Max(value = 9_999_999_999L, message = "Price must be at most 99999999.99")
+    @JsonSerialize(using = CentsJson.Serializer.class)
+    @JsonDeserialize(using = CentsJson.Deserializer.class)
+    private long price;
 
     public String getName() {
         return name;
@@ -21,11 +30,11 @@ public class ProductInputDTO {
         this.name = name;
     }
 
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(long price) {
         this.price = price;
     }
 
@@ -33,7 +42,7 @@ public class ProductInputDTO {
     public String toString() {
         return "ProductInputDTO{" +
                 "name='" + name + '\'' +
-                ", price=" + price +
+                ", price=" + Cents.toString(price) +
                 '}';
     }
 }
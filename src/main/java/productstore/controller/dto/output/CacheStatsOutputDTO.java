@@ -0,0 +1,71 @@
+package productstore.controller.dto.output;
+
+public class CacheStatsOutputDTO {
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private double hitRate;
+
+    public CacheStatsOutputDTO() {}
+
+    public CacheStatsOutputDTO(long size, long hitCount, long missCount, long evictionCount, double hitRate) {
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.hitRate = hitRate;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatsOutputDTO{" +
+                "size=" + size +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", hitRate=" + hitRate +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package productstore.controller.dto.output;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderExportDTO {
+
+    private Long id;
+    private Long userId;
+    private List<OrderExportItemDTO> items = new ArrayList<>();
+
+    public OrderExportDTO() {}
+
+    public OrderExportDTO(Long id, Long userId) {
+        this.id = id;
+        this.userId = userId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public List<OrderExportItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderExportItemDTO> items) {
+        this.items = items;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderExportDTO{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", items=" + items +
+                '}';
+    }
+}
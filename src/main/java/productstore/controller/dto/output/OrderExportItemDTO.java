@@ -0,0 +1,38 @@
+package productstore.controller.dto.output;
+
+public class OrderExportItemDTO {
+
+    private Long productId;
+    private int quantity;
+
+    public OrderExportItemDTO() {}
+
+    public OrderExportItemDTO(Long productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderExportItemDTO{" +
+                "productId=" + productId +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
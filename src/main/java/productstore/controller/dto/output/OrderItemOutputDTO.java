@@ -0,0 +1,33 @@
+package productstore.controller.dto.output;
+
+import productstore.model.Cents;
+
+public class OrderItemOutputDTO extends ProductOutputDTO {
+
+    private int quantity;
+
+    public OrderItemOutputDTO() {}
+
+    public OrderItemOutputDTO(Long id, String name, long price, int quantity) {
+        super(id, name, price);
+        this.quantity = quantity;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderItemOutputDTO{" +
+                "id=" + getId() +
+                ", name='" + getName() + '\'' +
+                ", price=" + Cents.toString(getPrice()) +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
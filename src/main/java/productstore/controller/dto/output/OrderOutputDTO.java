@@ -1,16 +1,30 @@
 package productstore.controller.dto.output;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import productstore.controller.dto.CentsJson;
+
 import java.util.List;
 
 public class OrderOutputDTO {
 
+    public static final List<String> FIELDS = List.of("id", "user", "products", "total");
+
     private Long id;
     private UserOutputDTO user;
-    private List<ProductOutputDTO> products;
+    private List<OrderItemOutputDTO> products;
+    // In cents, written and read as a decimal number.
+    @JsonSerialize(using = CentsJson.Serializer.class)
+    @JsonDeserialize(using = CentsJson.Deserializer.class)
+    private Long total;
+    // Sent as the ETag header rather than in the body; only set by updates.
+    @JsonIgnore
+    private String versionTag;
 
     public OrderOutputDTO() {}
 
-    public OrderOutputDTO(Long id, UserOutputDTO user, List<ProductOutputDTO> products) {
+    public OrderOutputDTO(Long id, UserOutputDTO user, List<OrderItemOutputDTO> products) {
         this.id = id;
         this.user = user;
         this.products = products;
@@ -32,20 +46,37 @@ public class OrderOutputDTO {
         this.user = user;
     }
 
-    public List<ProductOutputDTO> getProducts() {
+    public List<OrderItemOutputDTO> getProducts() {
         return products;
     }
 
-    public void setProducts(List<ProductOutputDTO> products) {
+    public void setProducts(List<OrderItemOutputDTO> products) {
         this.products = products;
     }
 
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public String getVersionTag() {
+        return versionTag;
+    }
+
+    public void setVersionTag(String versionTag) {
+        this.versionTag = versionTag;
+    }
+
     @Override
     public String toString() {
         return "OrderOutputDTO{" +
                 "id=" + id +
                 ", user=" + user +
                 ", products=" + products +
+                ", total=" + total +
                 '}';
     }
 }
@@ -0,0 +1,41 @@
+package productstore.controller.dto.output;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PageOutputDTO<T> {
+
+    private List<T> content = new ArrayList<>();
+    private Long nextCursor;
+
+    public PageOutputDTO() {}
+
+    public PageOutputDTO(List<T> content, Long nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "PageOutputDTO{" +
+                "content=" + content +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
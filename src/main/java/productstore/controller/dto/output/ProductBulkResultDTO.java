@@ -0,0 +1,70 @@
+package productstore.controller.dto.output;
+
+import java.util.Map;
+
+public class ProductBulkResultDTO {
+
+    public enum Status {
+        CREATED, UPDATED, INVALID, NOT_FOUND, FAILED
+    }
+
+    private int index;
+    private Long id;
+    private Status status;
+    private Map<String, String> errors;
+
+    public ProductBulkResultDTO() {}
+
+    public ProductBulkResultDTO(int index, Long id, Status status) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+    }
+
+    public ProductBulkResultDTO(int index, Long id, Status status, Map<String, String> errors) {
+        this(index, id, status);
+        this.errors = errors;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBulkResultDTO{" +
+                "index=" + index +
+                ", id=" + id +
+                ", status=" + status +
+                ", errors=" + errors +
+                '}';
+    }
+}
@@ -1,14 +1,30 @@
 package productstore.controller.dto.output;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import productstore.controller.dto.CentsJson;
+import productstore.model.Cents;
+
+import java.util.List;
+
 public class ProductOutputDTO {
 
+    public static final List<String> FIELDS = List.of("id", "name", "price");
+
     private Long id;
     private String name;
-    private double price;
+    // In cents, written and read as a decimal number.
+    @JsonSerialize(using = CentsJson.Serializer.class)
+    @JsonDeserialize(using = CentsJson.Deserializer.class)
+    private long price;
+    // Sent as the ETag header rather than in the body.
+    @JsonIgnore
+    private long version;
 
     public ProductOutputDTO() {}
 
-    public ProductOutputDTO(Long id, String name, double price) {
+    public ProductOutputDTO(Long id, String name, long price) {
         this.id = id;
         this.name = name;
         this.price = price;
@@ -30,20 +46,29 @@ public class ProductOutputDTO {
         this.name = name;
     }
 
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(long price) {
         this.price = price;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "ProductOutputDTO{" +
                 "id=" + id +
                 ", name='" + name + '\'' +
-                ", price=" + price +
+                ", price=" + Cents.toString(price) +
+                ", version=" + version +
                 '}';
     }
 }
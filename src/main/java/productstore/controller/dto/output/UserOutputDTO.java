@@ -1,14 +1,18 @@
 package productstore.controller.dto.output;
 
-import java.util.ArrayList;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class UserOutputDTO {
 
+    public static final List<String> FIELDS = List.of("id", "name", "email", "orderCount");
+
     private Long id;
     private String name;
     private String email;
-    private List<Long> orderOutputDTOS = new ArrayList<>();
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long orderCount;
 
     public UserOutputDTO() {}
 
@@ -34,12 +38,12 @@ public class UserOutputDTO {
         this.email = email;
     }
 
-    public List<Long> getOrderOutputDTOS() {
-        return orderOutputDTOS;
+    public Long getOrderCount() {
+        return orderCount;
     }
 
-    public void setOrderOutputDTOS(List<Long> orderOutputDTOS) {
-        this.orderOutputDTOS = orderOutputDTOS;
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
     }
 
     public Long getId() {
@@ -56,7 +60,7 @@ public class UserOutputDTO {
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", email='" + email + '\'' +
-                ", orderOutputDTOS=" + orderOutputDTOS +
+                ", orderCount=" + orderCount +
                 '}';
     }
 }
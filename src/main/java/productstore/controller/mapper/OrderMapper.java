@@ -3,18 +3,19 @@ package productstore.controller.mapper;
 import org.mapstruct.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import productstore.controller.dto.input.OrderInputDTO;
+import productstore.controller.dto.output.OrderItemOutputDTO;
 import productstore.controller.dto.output.OrderOutputDTO;
 import productstore.model.Order;
+import productstore.model.OrderItem;
 import productstore.model.Product;
 import productstore.model.User;
 import productstore.service.ProductService;
 import productstore.service.UserService;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 
-@Mapper(componentModel = "spring", uses = {UserMapper.class, ProductMapper.class})
+@Mapper(componentModel = "spring", uses = UserMapper.class)
 public abstract class OrderMapper {
 
     private UserService userService;
@@ -29,14 +30,19 @@ public abstract class OrderMapper {
         this.productService = productService;
     }
 
-    @Mapping(target = "products", source = "orderProducts")
-    @Mapping(target = "user", source = "user")
+    @Mapping(target = "products", source = "items")
+    @Mapping(target = "user", source = "user", qualifiedByName = "userSummary")
+    @Mapping(target = "total", source = "totalCents")
+    @Mapping(target = "versionTag", ignore = true)
     public abstract OrderOutputDTO toDTO(Order order);
 
-    @Mapping(target = "products", source = "orderProducts")
-    @Mapping(target = "user", source = "user")
     public abstract List<OrderOutputDTO> toDTOs(List<Order> orders);
 
+    @Mapping(target = "id", source = "product.id")
+    @Mapping(target = "name", source = "product.name")
+    @Mapping(target = "price", source = "product.priceCents")
+    public abstract OrderItemOutputDTO toItemDTO(OrderItem item);
+
 
     @Mapping(target = "user", source = "userId", qualifiedByName = "mapUserIdToUser")
     @Mapping(target = "orderProducts", source = "productIds", qualifiedByName = "mapProductIdsToProducts")
@@ -45,13 +51,11 @@ public abstract class OrderMapper {
 
     @Named("mapUserIdToUser")
     public User mapUserIdToUser(Long userId) {
-        return userService.findById(userId);
+        return userService.getReferenceById(userId);
     }
 
     @Named("mapProductIdsToProducts")
     public List<Product> mapProductIdsToProducts(List<Long> productIds) {
-        return productIds.stream()
-                .map(productService::findById)
-                .collect(Collectors.toList());
+        return productService.findAllByIds(productIds);
     }
 }
@@ -10,11 +10,12 @@ import java.util.List;
 @Mapper(componentModel = "spring")
 public interface ProductMapper {
 
+    @Mapping(target = "price", source = "priceCents")
     ProductOutputDTO toDTO(Product product);
 
     List<ProductOutputDTO> toDTOs(List<Product> products);
 
     @Mapping(target = "id", ignore = true)
-    @Mapping(target = "orders", ignore = true)
+    @Mapping(target = "priceCents", source = "price")
     Product toEntity(ProductInputDTO productInputDTO);
 }
\ No newline at end of file
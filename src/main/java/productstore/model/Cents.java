@@ -0,0 +1,59 @@
+package productstore.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Money amounts held as a {@code long} number of cents. Sums and multiples of cents are exact and
+ * need no allocation; amounts are only converted at the edges, to {@code DECIMAL(10, 2)} columns by
+ * {@link CentsConverter} and to JSON numbers with two decimals.
+ */
+public final class Cents {
+
+    /**
+     * Characters needed to format any {@code long}, such as {@code -92233720368547758.08}.
+     */
+    public static final int MAX_LENGTH = 21;
+
+    private Cents() {}
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Fails with {@link ArithmeticException} if the amount has non-zero digits below a cent or does
+     * not fit in a {@code long}.
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Writes the amount with exactly two decimals, such as {@code 12.50}, right-aligned into a buffer of
+     * at least {@link #MAX_LENGTH} characters, and returns the offset of its first character.
+     */
+    public static int format(long cents, char[] buffer) {
+        int position = buffer.length;
+        // Digits are taken from the non-positive value, which also covers Long.MIN_VALUE.
+        long remaining = cents > 0 ? -cents : cents;
+        for (int i = 0; i < 2; i++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (cents < 0) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+
+    public static String toString(long cents) {
+        char[] buffer = new char[MAX_LENGTH];
+        int start = format(cents, buffer);
+        return new String(buffer, start, buffer.length - start);
+    }
+}
@@ -0,0 +1,23 @@
+package productstore.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps amounts in cents to {@code DECIMAL(10, 2)} columns.
+ */
+@Converter
+public class CentsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long cents) {
+        return cents == null ? null : Cents.toDecimal(cents);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Cents.fromDecimal(amount);
+    }
+}
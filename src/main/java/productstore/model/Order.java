@@ -1,30 +1,38 @@
 package productstore.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
 @Table(name = "orders")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "orders")
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id_seq")
+    @SequenceGenerator(name = "orders_id_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToMany
-    @JoinTable(
-            name = "orders_products",
-            joinColumns = @JoinColumn(name = "order_id"),
-            inverseJoinColumns = @JoinColumn(name = "product_id")
-    )
-    private List<Product> orderProducts = new ArrayList<>();
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id.productId")
+    private Set<OrderItem> items = new LinkedHashSet<>();
 
     public Order() {}
 
@@ -40,6 +48,10 @@ public class Order {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public User getUser() {
         return user;
     }
@@ -48,15 +60,74 @@ public class Order {
         this.user = user;
     }
 
+    public Set<OrderItem> getItems() {
+        return items;
+    }
+
     public List<Product> getOrderProducts() {
-        return orderProducts;
+        return items.stream().map(OrderItem::getProduct).toList();
     }
 
+    /**
+     * The sum of each item's price times its quantity, in cents. Exact, and fails rather than
+     * overflows.
+     */
+    public long getTotalCents() {
+        long total = 0;
+        for (OrderItem item : items) {
+            total = Math.addExact(total, Math.multiplyExact(item.getProduct().getPriceCents(), item.getQuantity()));
+        }
+        return total;
+    }
+
+    /**
+     * Replaces the order's contents. Repeated products collapse into a single item whose quantity is
+     * the number of repetitions; items for products that stay in the order are updated in place so
+     * the flush issues updates rather than a delete and re-insert of the same key.
+     */
     public void setOrderProducts(List<Product> orderProducts) {
-        this.orderProducts.clear();
-        if (orderProducts != null) {
-            this.orderProducts.addAll(orderProducts);
+        Map<Long, Integer> quantities = countById(orderProducts);
+        items.removeIf(item -> !quantities.containsKey(item.getProduct().getId()));
+        for (OrderItem item : items) {
+            item.setQuantity(quantities.remove(item.getProduct().getId()));
+        }
+        addItems(orderProducts, quantities);
+    }
+
+    /**
+     * Adds products to the order, increasing the quantity of products it already contains.
+     */
+    public void addProducts(List<Product> products) {
+        Map<Long, Integer> quantities = countById(products);
+        for (OrderItem item : items) {
+            Integer added = quantities.remove(item.getProduct().getId());
+            if (added != null) {
+                item.setQuantity(item.getQuantity() + added);
+            }
+        }
+        addItems(products, quantities);
+    }
+
+    private void addItems(List<Product> products, Map<Long, Integer> quantities) {
+        if (products == null) {
+            return;
+        }
+        for (Product product : products) {
+            Integer quantity = quantities.remove(product.getId());
+            if (quantity != null) {
+                items.add(new OrderItem(this, product, quantity));
+            }
+        }
+    }
+
+    private static Map<Long, Integer> countById(List<Product> products) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        if (products != null) {
+            for (Product product : products) {
+                quantities.merge(product.getId(), 1, Integer::sum);
+            }
         }
+        return quantities;
     }
 
     @Override
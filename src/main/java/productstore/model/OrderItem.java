@@ -0,0 +1,61 @@
+package productstore.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "order_items")
+public class OrderItem {
+
+    @EmbeddedId
+    private OrderItemId id = new OrderItemId();
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("orderId")
+    @JoinColumn(name = "order_id")
+    private Order order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("productId")
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    public OrderItem() {}
+
+    public OrderItem(Order order, Product product, int quantity) {
+        this.id = new OrderItemId(order.getId(), product.getId());
+        this.order = order;
+        this.product = product;
+        this.quantity = quantity;
+    }
+
+    public OrderItemId getId() {
+        return id;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderItem{" +
+                "productId=" + id.getProductId() +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
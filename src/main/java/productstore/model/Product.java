@@ -1,33 +1,37 @@
 package productstore.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
-    private String name;
+    @Version
+    private long version;
 
     @Column(nullable = false)
-    private double price;
+    private String name;
 
-    @ManyToMany(mappedBy = "orderProducts")
-    private List<Order> orders = new ArrayList<>();
+    @Column(name = "price", nullable = false)
+    @Convert(converter = CentsConverter.class)
+    private long priceCents;
 
     public Product() {}
 
-    public Product(String name, double price) {
+    public Product(String name, long priceCents) {
         this.name = name;
-        this.price = price;
+        this.priceCents = priceCents;
     }
 
     public Long getId() {
@@ -38,6 +42,10 @@ public class Product {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getName() {
         return name;
     }
@@ -46,20 +54,12 @@ public class Product {
         this.name = name;
     }
 
-    public double getPrice() {
-        return price;
-    }
-
-    public void setPrice(double price) {
-        this.price = price;
-    }
-
-    public List<Order> getOrders() {
-        return orders;
+    public long getPriceCents() {
+        return priceCents;
     }
 
-    public void setOrders(List<Order> orders) {
-        this.orders = orders;
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     @Override
@@ -67,7 +67,7 @@ public class Product {
         return "Product{" +
                 "id=" + id +
                 ", name='" + name + '\'' +
-                ", price=" + price +
+                ", price=" + Cents.toString(priceCents) +
                 '}';
     }
 
@@ -87,8 +87,7 @@ public class Product {
     public static class Builder {
         private Long id;
         private String name;
-        private double price;
-        private List<Order> orders = new ArrayList<>();
+        private long priceCents;
 
         public Builder withId(Long id) {
             this.id = id;
@@ -100,13 +99,8 @@ public class Product {
             return this;
         }
 
-        public Builder withPrice(double price) {
-            this.price = price;
-            return this;
-        }
-
-        public Builder withOrders(List<Order> orders) {
-            this.orders = orders;
+        public Builder withPriceCents(long priceCents) {
+            this.priceCents = priceCents;
             return this;
         }
 
@@ -114,8 +108,7 @@ public class Product {
             Product product = new Product();
             product.setId(this.id);
             product.setName(this.name);
-            product.setPrice(this.price);
-            product.setOrders(this.orders);
+            product.setPriceCents(this.priceCents);
             return product;
         }
     }
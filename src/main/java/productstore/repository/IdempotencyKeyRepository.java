@@ -0,0 +1,91 @@
+package productstore.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Rows of {@code idempotency_keys}. Claims and releases are called outside any transaction, so a
+ * claim is visible to other instances before the claimed request starts its work; {@link #complete}
+ * joins the transaction of the request it records, if there is one. Expiry is computed by the
+ * database clock.
+ */
+@Repository
+public class IdempotencyKeyRepository {
+
+    private static final String CLAIM_QUERY =
+            "INSERT INTO idempotency_keys (scope, idempotency_key, request_hash, expires_at) "
+                    + "VALUES (?, ?, ?, now() + ? * INTERVAL '1 millisecond') "
+                    + "ON CONFLICT (scope, idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, "
+                    + "response = NULL, expires_at = EXCLUDED.expires_at WHERE idempotency_keys.expires_at < now()";
+
+    private static final String FIND_QUERY =
+            "SELECT request_hash, response FROM idempotency_keys WHERE scope = ? AND idempotency_key = ?";
+
+    private static final String COMPLETE_QUERY =
+            "UPDATE idempotency_keys SET response = ?, expires_at = now() + ? * INTERVAL '1 millisecond' "
+                    + "WHERE scope = ? AND idempotency_key = ?";
+
+    private static final String RELEASE_QUERY =
+            "DELETE FROM idempotency_keys WHERE scope = ? AND idempotency_key = ? AND response IS NULL";
+
+    private static final String DELETE_EXPIRED_QUERY = "DELETE FROM idempotency_keys WHERE expires_at < now()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Claims the key for {@code claimTimeout}, unless a live row holds it already. Returns that row,
+     * or empty when the claim succeeded.
+     */
+    public Optional<Entry> claim(String scope, String key, String requestHash, Duration claimTimeout) {
+        if (jdbcTemplate.update(CLAIM_QUERY, scope, key, requestHash, claimTimeout.toMillis()) == 1) {
+            return Optional.empty();
+        }
+        List<Entry> entries = jdbcTemplate.query(FIND_QUERY,
+                (rs, rowNum) -> new Entry(rs.getString(1), rs.getString(2)), scope, key);
+        // Released in between: the caller treats it like a request still in progress.
+        return Optional.of(entries.isEmpty() ? new Entry(requestHash, null) : entries.get(0));
+    }
+
+    public void complete(String scope, String key, String response, Duration ttl) {
+        jdbcTemplate.update(COMPLETE_QUERY, response, ttl.toMillis(), scope, key);
+    }
+
+    public void release(String scope, String key) {
+        jdbcTemplate.update(RELEASE_QUERY, scope, key);
+    }
+
+    public int deleteExpired() {
+        return jdbcTemplate.update(DELETE_EXPIRED_QUERY);
+    }
+
+    public static final class Entry {
+
+        private final String requestHash;
+        private final String response;
+
+        public Entry(String requestHash, String response) {
+            this.requestHash = requestHash;
+            this.response = response;
+        }
+
+        public String getRequestHash() {
+            return requestHash;
+        }
+
+        /**
+         * The serialized response, or {@code null} while the request holding the key is in progress.
+         */
+        public String getResponse() {
+            return response;
+        }
+    }
+}
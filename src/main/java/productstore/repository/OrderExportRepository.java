@@ -0,0 +1,13 @@
+package productstore.repository;
+
+import java.util.stream.Stream;
+
+public interface OrderExportRepository {
+
+    /**
+     * Streams one {@code [orderId, userId, productId, quantity]} row per order item, ordered by order id,
+     * through a forward-only cursor. Rows are scalars, so nothing accumulates in the persistence
+     * context; the caller must consume and close the stream inside a transaction.
+     */
+    Stream<Object[]> streamOrderItemRows();
+}
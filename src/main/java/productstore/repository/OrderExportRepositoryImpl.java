@@ -0,0 +1,32 @@
+package productstore.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.core.env.Environment;
+
+import java.util.stream.Stream;
+
+public class OrderExportRepositoryImpl implements OrderExportRepository {
+
+    private static final String ORDER_ITEM_ROWS_QUERY =
+            "select o.id, o.user.id, i.id.productId, i.quantity from Order o left join o.items i "
+                    + "order by o.id, i.id.productId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int fetchSize;
+
+    public OrderExportRepositoryImpl(Environment env) {
+        this.fetchSize = Integer.parseInt(env.getProperty("productstore.export.fetch-size", "1000"));
+    }
+
+    @Override
+    public Stream<Object[]> streamOrderItemRows() {
+        return entityManager.createQuery(ORDER_ITEM_ROWS_QUERY, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -1,22 +1,53 @@
 package productstore.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import productstore.model.Order;
-import productstore.model.Product;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderExportRepository {
 
-    @EntityGraph(attributePaths = {"user", "orderProducts"})
-    List<Order> findAll();
+    @Query("select o.id from Order o where o.id > :after order by o.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
 
-    @EntityGraph(attributePaths = {"user", "orderProducts"})
+    @Query("select o.id from Order o where o.user.id = :userId and o.id > :after order by o.id")
+    List<Long> findIdsByUserIdAfter(@Param("userId") Long userId, @Param("after") Long after, Limit limit);
+
+    @EntityGraph(attributePaths = {"user", "items", "items.product"})
+    List<Order> findAllByIdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * Returns {@code [orderId, userId, userName, userEmail]} rows without touching the items.
+     */
+    @Query("select o.id, u.id, u.name, u.email from Order o join o.user u where o.id in :ids order by o.id")
+    List<Object[]> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"user", "items", "items.product"})
     Optional<Order> findById(Long id);
 
-    List<Order> findAllByOrderProductsContaining(Product product);
+    /**
+     * Returns {@code [orderVersion, userVersion, productId, productVersion, quantity]} rows, one
+     * per item, or a single row with null item columns for an empty order.
+     */
+    @Query("select o.version, u.version, p.id, p.version, i.quantity from Order o join o.user u "
+            + "left join o.items i left join i.product p where o.id = :id")
+    List<Object[]> findVersionRows(@Param("id") Long id);
+
+    /**
+     * Loads the order bypassing the second-level cache and locks its row until commit, so an
+     * If-Match check and the update that follows it see no concurrent change in between.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> lockById(@Param("id") Long id);
 }
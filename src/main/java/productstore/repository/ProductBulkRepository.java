@@ -0,0 +1,17 @@
+package productstore.repository;
+
+import productstore.model.Product;
+
+import java.util.List;
+
+public interface ProductBulkRepository {
+
+    List<Long> allocateIds(int count);
+
+    void insertAll(List<Product> products);
+
+    /**
+     * Returns, per product and in order, the number of rows updated: 0 for a product that no longer exists.
+     */
+    int[] updateAll(List<Product> products);
+}
@@ -0,0 +1,97 @@
+package productstore.repository;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import productstore.model.Cents;
+import productstore.model.Product;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductBulkRepositoryImpl implements ProductBulkRepository {
+
+    // Must match the allocationSize of Product's @SequenceGenerator and the sequence increment.
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String NEXT_ID_BLOCKS_QUERY =
+            "SELECT nextval('products_id_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERT_QUERY = "INSERT INTO products (id, name, price) VALUES (?, ?, ?)";
+
+    private static final String UPDATE_QUERY =
+            "UPDATE products SET name = ?, price = ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache secondLevelCache;
+
+    public ProductBulkRepositoryImpl(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.secondLevelCache = entityManagerFactory.getCache();
+    }
+
+    /**
+     * Reserves ids the same way Hibernate's pooled optimizer does: every {@code nextval} hands out
+     * the block {@code (value - 50, value]}, so ids never collide with those assigned by Hibernate.
+     */
+    @Override
+    public List<Long> allocateIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        if (count == 0) {
+            return ids;
+        }
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        for (Long blockEnd : jdbcTemplate.queryForList(NEXT_ID_BLOCKS_QUERY, Long.class, blocks)) {
+            for (long id = Math.max(blockEnd - ID_BLOCK_SIZE + 1, 1); id <= blockEnd && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts products whose ids were taken from {@link #allocateIds}, so they cannot exist yet.
+     */
+    @Override
+    public void insertAll(List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT_QUERY, products, products.size(), (ps, product) -> {
+            ps.setLong(1, product.getId());
+            ps.setString(2, product.getName());
+            ps.setBigDecimal(3, Cents.toDecimal(product.getPriceCents()));
+        });
+    }
+
+    /**
+     * Only updates existing rows, so a product deleted concurrently is not brought back. The update
+     * bypasses Hibernate, so the written products are evicted from the second-level cache here and
+     * once more after commit, in case a concurrent read cached the old row in between.
+     */
+    @Override
+    public int[] updateAll(List<Product> products) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_QUERY, products, products.size(), (ps, product) -> {
+            ps.setString(1, product.getName());
+            ps.setBigDecimal(2, Cents.toDecimal(product.getPriceCents()));
+            ps.setLong(3, product.getId());
+        });
+        List<Long> ids = products.stream().map(Product::getId).toList();
+        evict(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(ids);
+                }
+            });
+        }
+        return counts.length == 0 ? new int[0] : counts[0];
+    }
+
+    private void evict(List<Long> ids) {
+        for (Long id : ids) {
+            secondLevelCache.evict(Product.class, id);
+        }
+    }
+}
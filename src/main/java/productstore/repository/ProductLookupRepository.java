@@ -0,0 +1,11 @@
+package productstore.repository;
+
+import productstore.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductLookupRepository {
+
+    List<Product> findByIdIn(Collection<Long> ids);
+}
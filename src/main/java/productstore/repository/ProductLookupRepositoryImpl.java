@@ -0,0 +1,31 @@
+package productstore.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import productstore.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+public class ProductLookupRepositoryImpl implements ProductLookupRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Takes the products already in the persistence context or the second-level cache from there
+     * and loads only the rest, in batches, instead of always querying every id. Ids that do not
+     * exist are left out.
+     */
+    @Override
+    public List<Product> findByIdIn(Collection<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Product.class)
+                .multiLoad(List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -1,20 +1,47 @@
 package productstore.repository;
 
-import org.springframework.data.jpa.repository.EntityGraph;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import productstore.controller.dto.output.ProductOutputDTO;
 import productstore.model.Product;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductBulkRepository, ProductLookupRepository {
 
-    @EntityGraph(attributePaths = {"orders"})
-    List<Product> findAll();
+    @Query("select p.id from Product p where p.id > :after order by p.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
 
-    @EntityGraph(attributePaths = {"orders"})
-    Optional<Product> findById(Long id);
+    List<Product> findAllByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Query("select new productstore.controller.dto.output.ProductOutputDTO(p.id, p.name, p.priceCents) "
+            + "from Product p where p.id > :after order by p.id")
+    List<ProductOutputDTO> findSummariesAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT id FROM products WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    // Declares the table touched so that Hibernate keeps the second-level cache instead of clearing it.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_items"))
+    @Query(value = "DELETE FROM order_items WHERE product_id = :productId", nativeQuery = true)
+    int deleteOrderItems(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteProductById(@Param("id") Long id);
 
 }
@@ -1,19 +1,37 @@
 package productstore.repository;
 
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import productstore.controller.dto.output.UserOutputDTO;
 import productstore.model.User;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    @EntityGraph(attributePaths = {"orders"})
-    List<User> findAll();
+    @Query("select u.id from User u where u.id > :after order by u.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
 
-    @EntityGraph(attributePaths = {"orders"})
-    Optional<User> findById(Long id);
+    List<User> findAllByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select new productstore.controller.dto.output.UserOutputDTO(u.id, u.name, u.email) "
+            + "from User u where u.id > :after order by u.id")
+    List<UserOutputDTO> findSummariesAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select count(o) from Order o where o.user.id = :userId")
+    long countOrders(@Param("userId") Long userId);
+
+    /**
+     * Returns {@code [userId, orderCount]} rows; users without orders have no row.
+     */
+    @Query("select o.user.id, count(o) from Order o where o.user.id in :userIds group by o.user.id")
+    List<Object[]> countOrdersByUserIds(@Param("userIds") Collection<Long> userIds);
 }
@@ -0,0 +1,65 @@
+package productstore.service;
+
+import productstore.service.exception.UnknownFieldException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The fields of a representation selected with a {@code fields=id,name} query parameter.
+ * {@link #ALL} stands for the full representation, which is also what an absent or blank
+ * parameter selects.
+ */
+public final class FieldSet {
+
+    public static final FieldSet ALL = new FieldSet(null);
+
+    private final Set<String> names;
+
+    private FieldSet(Set<String> names) {
+        this.names = names;
+    }
+
+    public static FieldSet parse(String fields, List<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new UnknownFieldException("Unknown field '" + name + "', expected any of " + allowed + ".");
+            }
+            names.add(name);
+        }
+        return names.isEmpty() || names.containsAll(allowed) ? ALL : new FieldSet(names);
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof FieldSet other && Objects.equals(names, other.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(names);
+    }
+
+    @Override
+    public String toString() {
+        return names == null ? "FieldSet{all}" : "FieldSet" + names;
+    }
+}
@@ -0,0 +1,12 @@
+package productstore.service;
+
+import productstore.controller.dto.input.OrderInputDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface OrderIngestService {
+
+    boolean isEnabled();
+
+    CompletableFuture<Long> submit(OrderInputDTO orderInputDTO);
+}
@@ -2,19 +2,34 @@ package productstore.service;
 
 import productstore.controller.dto.input.OrderInputDTO;
 import productstore.controller.dto.input.ProductIdsDTO;
+import productstore.controller.dto.output.OrderExportDTO;
 import productstore.controller.dto.output.OrderOutputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 
-import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
-    List<OrderOutputDTO> getAllOrders();
+    PageOutputDTO<OrderOutputDTO> getAllOrders(Long after, int limit);
+
+    PageOutputDTO<OrderOutputDTO> getAllOrders(Long after, int limit, FieldSet fields);
+
+    PageOutputDTO<OrderOutputDTO> getOrdersByUserId(Long userId, Long after, int limit);
 
     OrderOutputDTO getOrderById(Long id);
 
+    OrderOutputDTO getOrderById(Long id, String versionTag);
+
+    String getOrderVersionTag(Long id);
+
     OrderOutputDTO saveOrder(OrderInputDTO orderInputDTO);
 
     void deleteOrderById(Long id);
 
+    void exportOrders(Consumer<OrderExportDTO> consumer);
+
     OrderOutputDTO updateOrderById(Long id, ProductIdsDTO productIdsDTO);
+
+    OrderOutputDTO updateOrderById(Long id, ProductIdsDTO productIdsDTO, Set<String> ifMatch);
 }
@@ -0,0 +1,50 @@
+package productstore.service;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class Pagination {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private Pagination() {}
+
+    public static long afterOrFirst(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    public static int normalizeLimit(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_LIMIT);
+    }
+
+    /**
+     * One row more than the page size is requested so that the presence of a next page
+     * can be detected without a count query.
+     */
+    public static Limit lookAhead(int limit) {
+        return Limit.of(limit + 1);
+    }
+
+    public static List<Long> pageIds(List<Long> ids, int limit) {
+        return page(ids, limit);
+    }
+
+    public static Long nextCursor(List<Long> ids, int limit) {
+        return ids.size() > limit ? ids.get(limit - 1) : null;
+    }
+
+    /**
+     * Variants of {@link #pageIds} and {@link #nextCursor} for projections that are fetched with
+     * the look-ahead row directly instead of through a list of ids.
+     */
+    public static <T> List<T> page(List<T> rows, int limit) {
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    public static <T> Long nextCursor(List<T> rows, int limit, Function<T, Long> id) {
+        return rows.size() > limit ? id.apply(rows.get(limit - 1)) : null;
+    }
+}
@@ -0,0 +1,12 @@
+package productstore.service;
+
+import productstore.controller.dto.input.ProductBulkInputDTO;
+import productstore.controller.dto.output.ProductBulkResultDTO;
+
+import java.util.Iterator;
+import java.util.List;
+
+public interface ProductBulkService {
+
+    List<ProductBulkResultDTO> saveProducts(Iterator<ProductBulkInputDTO> products);
+}
@@ -1,14 +1,18 @@
 package productstore.service;
 
 import productstore.controller.dto.input.ProductInputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.ProductOutputDTO;
 import productstore.model.Product;
 
 import java.util.List;
+import java.util.Set;
 
 public interface ProductService {
 
-    List<ProductOutputDTO> getAllProducts();
+    PageOutputDTO<ProductOutputDTO> getAllProducts(Long after, int limit);
+
+    PageOutputDTO<ProductOutputDTO> getAllProducts(Long after, int limit, FieldSet fields);
 
     ProductOutputDTO getProductById(Long id);
 
@@ -18,5 +22,9 @@ public interface ProductService {
 
     Product findById(Long id);
 
+    List<Product> findAllByIds(List<Long> ids);
+
     ProductOutputDTO updateProductById(Long id, ProductInputDTO productInputDTO);
+
+    ProductOutputDTO updateProductById(Long id, ProductInputDTO productInputDTO, Set<String> ifMatch);
 }
@@ -2,19 +2,22 @@ package productstore.service;
 
 import productstore.controller.dto.input.UserChangeEmailDTO;
 import productstore.controller.dto.input.UserInputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.UserOutputDTO;
 import productstore.model.User;
 
-import java.util.List;
-
 public interface UserService {
 
-    User findById(Long id);
+    User getReferenceById(Long id);
+
+    PageOutputDTO<UserOutputDTO> getAllUsers(Long after, int limit);
 
-    List<UserOutputDTO> getAllUsers();
+    PageOutputDTO<UserOutputDTO> getAllUsers(Long after, int limit, FieldSet fields);
 
     UserOutputDTO getUserById(Long id);
 
+    UserOutputDTO getUserById(Long id, FieldSet fields);
+
     UserOutputDTO saveUser(UserInputDTO userDTO);
 
     void deleteUserById(Long id);
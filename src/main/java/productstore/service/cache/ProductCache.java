@@ -0,0 +1,104 @@
+package productstore.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import productstore.controller.dto.output.ProductOutputDTO;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+public class ProductCache {
+
+    /**
+     * Name under which loads of missing entries are coalesced in the {@link SingleFlight}.
+     */
+    public static final String FLIGHT = "products";
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<Long, ProductOutputDTO> cache;
+    private final SingleFlight singleFlight;
+    // Bumped by every eviction of an id hashing to the stripe; a load only publishes its result if
+    // its stripe's generation is the same as when it started.
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public ProductCache(long maximumSize, Duration expireAfterWrite, SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public ProductOutputDTO get(Long id, Function<Long, ProductOutputDTO> loader) {
+        return cache.get(id, loader);
+    }
+
+    public ProductOutputDTO getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    /**
+     * Loads the entry after a {@link #getIfPresent} miss without counting a second miss. The loader
+     * runs outside the cache's locks; its result is returned but not cached if the id was evicted
+     * while it ran, as it may then predate the eviction.
+     */
+    public ProductOutputDTO load(Long id, Function<Long, ProductOutputDTO> loader) {
+        int stripe = stripe(id);
+        long generation = generations.get(stripe);
+        ProductOutputDTO loaded = loader.apply(id);
+        if (loaded == null || generations.get(stripe) != generation) {
+            return loaded;
+        }
+        ProductOutputDTO current = cache.asMap().putIfAbsent(id, loaded);
+        if (current != null) {
+            return current;
+        }
+        // An eviction that bumped the generation before this check may have invalidated the id
+        // before the entry above was put, so take the entry back out.
+        if (generations.get(stripe) != generation) {
+            cache.asMap().remove(id, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the entry now and, when called inside a transaction, once more after commit so that
+     * a concurrent reader cannot re-populate the cache with the pre-commit row. Each time, a load of
+     * the id still in flight is also forgotten, so later readers do not share its older result.
+     */
+    public void evict(Long id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long id) {
+        generations.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+        singleFlight.forget(FLIGHT, id);
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (GENERATION_STRIPES - 1);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,107 @@
+package productstore.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader and every caller that
+ * arrives while it runs waits for and shares its result or exception. Nothing is kept once the load
+ * has finished, so a caller may receive a result whose load began shortly before it called, but never
+ * one that finished before. Loads are claimed in a {@link ConcurrentHashMap}, whose per-bin locks keep
+ * different keys from contending, and the loader itself runs outside any lock.
+ * <p>
+ * Calls are counted in {@code productstore.singleflight.calls}, tagged with the name of the load and
+ * whether the caller {@code loaded} or {@code shared} the result.
+ */
+public class SingleFlight {
+
+    static final String METER = "productstore.singleflight";
+
+    private static final int LOADED = 0;
+    private static final int SHARED = 1;
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<Flight, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> countersByName = new ConcurrentHashMap<>();
+
+    public SingleFlight(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder(METER + ".in.flight", inFlight, Map::size)
+                .description("Loads currently in progress")
+                .register(registry);
+    }
+
+    /**
+     * Returns what {@code loader} returns, or throws what it throws, running it only if no load of
+     * {@code key} under {@code name} is already in progress.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String name, Object key, Supplier<T> loader) {
+        Counter[] counters = counters(name);
+        Flight id = new Flight(name, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(id, flight);
+        if (running != null) {
+            counters[SHARED].increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        counters[LOADED].increment();
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, flight);
+        }
+    }
+
+    /**
+     * Makes callers that arrive from now on start a new load of {@code key} instead of joining the one
+     * in progress, whose result may predate a write. Callers already waiting still share it.
+     */
+    public void forget(String name, Object key) {
+        inFlight.remove(new Flight(name, key));
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return (RuntimeException) cause;
+    }
+
+    private Counter[] counters(String name) {
+        Counter[] counters = countersByName.get(name);
+        return counters != null ? counters : countersByName.computeIfAbsent(name, this::register);
+    }
+
+    private Counter[] register(String name) {
+        return new Counter[]{counter(name, "loaded"), counter(name, "shared")};
+    }
+
+    private Counter counter(String name, String result) {
+        return Counter.builder(METER + ".calls")
+                .description("Coalesced loads by name and whether the caller ran or shared the load")
+                .tag("name", name)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record Flight(String name, Object key) {
+    }
+}
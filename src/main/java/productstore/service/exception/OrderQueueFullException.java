@@ -0,0 +1,7 @@
+package productstore.service.exception;
+
+public class OrderQueueFullException extends RuntimeException {
+    public OrderQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package productstore.service.exception;
+
+public class UnknownFieldException extends RuntimeException {
+    public UnknownFieldException(String message) {
+        super(message);
+    }
+}
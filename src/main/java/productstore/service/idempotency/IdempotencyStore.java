@@ -0,0 +1,246 @@
+package productstore.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import productstore.repository.IdempotencyKeyRepository;
+import productstore.repository.IdempotencyKeyRepository.Entry;
+import productstore.service.exception.IdempotencyConflictException;
+import productstore.service.exception.IdempotencyKeyReusedException;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs a POST at most once per {@code Idempotency-Key} and replays its response on retries. Keys are
+ * claimed in {@code idempotency_keys} before the request runs and completed with the serialized
+ * response; completed responses are also kept in a bounded in-memory cache, so a replay usually needs
+ * no query at all. Requests with a key that is already running on this instance wait for its outcome
+ * instead of claiming the key again; on another instance they are answered with
+ * {@link IdempotencyConflictException}. Failed requests release their key, so a retry runs again.
+ * <p>
+ * A key must never be released or expire while its request may have taken effect without its
+ * response being recorded, or a retry would run it twice. {@link #execute} therefore records the
+ * response in the transaction the request writes in, and its claim only has to outlive a crashed
+ * request. {@link #executeAsync} can only record the response after the action's own commit, so it
+ * claims keys for the whole TTL: a key whose outcome is unknown stays blocked rather than run again.
+ */
+public class IdempotencyStore implements AutoCloseable {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private static final Log logger = LogFactory.getLog(IdempotencyStore.class);
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final long purgeIntervalMillis;
+    private final LongSupplier clock;
+    private final Cache<String, Entry> completed;
+    private final ConcurrentMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService recorder = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile long nextPurgeAt;
+
+    public IdempotencyStore(IdempotencyKeyRepository repository, PlatformTransactionManager transactionManager,
+                            Duration ttl, Duration claimTimeout, long maximumCachedResponses, Duration purgeInterval) {
+        this(repository, transactionManager, ttl, claimTimeout, maximumCachedResponses, purgeInterval,
+                System::currentTimeMillis);
+    }
+
+    IdempotencyStore(IdempotencyKeyRepository repository, PlatformTransactionManager transactionManager,
+                     Duration ttl, Duration claimTimeout, long maximumCachedResponses, Duration purgeInterval,
+                     LongSupplier clock) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+        this.purgeIntervalMillis = purgeInterval.toMillis();
+        this.clock = clock;
+        this.nextPurgeAt = clock.getAsLong() + purgeIntervalMillis;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maximumCachedResponses)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Blocking form of {@link #executeAsync}, for actions that complete on the calling thread. The
+     * action runs in a transaction that also records its response, which it joins if it is
+     * transactional itself.
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        try {
+            return run(scope, key, request, responseType, claimTimeout, requestHash ->
+                    CompletableFuture.completedFuture(transactionTemplate.execute(status -> {
+                        T response = action.get();
+                        Entry entry = new Entry(requestHash, serialize(response));
+                        repository.complete(scope, key, entry.getResponse(), ttl);
+                        return new Outcome<>(response, entry);
+                    }))).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the response of {@code action}, or of the earlier request made with the same key within
+     * the TTL. A key reused with a different request body fails with {@link IdempotencyKeyReusedException}.
+     */
+    public <T> CompletableFuture<T> executeAsync(String scope, String key, Object request, Class<T> responseType,
+                                                 Supplier<CompletableFuture<T>> action) {
+        return run(scope, key, request, responseType, ttl,
+                requestHash -> action.get().thenApply(response -> new Outcome<>(response, null)));
+    }
+
+    /**
+     * Claims the key for {@code claimFor} and runs {@code action}, whose outcome carries the recorded
+     * entry if the action recorded it itself.
+     */
+    private <T> CompletableFuture<T> run(String scope, String key, Object request, Class<T> responseType,
+                                         Duration claimFor, Function<String, CompletableFuture<Outcome<T>>> action) {
+        String id = scope + ' ' + key;
+        String requestHash = hash(request);
+        Entry cached = completed.getIfPresent(id);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(replay(cached, requestHash, responseType));
+        }
+        CompletableFuture<Entry> claim = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(id, claim);
+        if (running != null) {
+            return running.thenApply(entry -> replay(entry, requestHash, responseType));
+        }
+
+        Entry existing;
+        try {
+            purgeIfDue();
+            existing = repository.claim(scope, key, requestHash, claimFor).orElse(null);
+        } catch (RuntimeException e) {
+            finish(id, claim, null, e);
+            throw e;
+        }
+        if (existing != null) {
+            if (existing.getResponse() == null) {
+                IdempotencyConflictException conflict = new IdempotencyConflictException(
+                        "A request with this Idempotency-Key is still in progress, retry later.");
+                finish(id, claim, null, conflict);
+                throw conflict;
+            }
+            completed.put(id, existing);
+            finish(id, claim, existing, null);
+            return CompletableFuture.completedFuture(replay(existing, requestHash, responseType));
+        }
+
+        CompletableFuture<Outcome<T>> result;
+        try {
+            result = action.apply(requestHash);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        // A row that cannot be released or completed is left claimed until its claim expires; the
+        // caller still gets the action's outcome.
+        BiConsumer<Outcome<T>, Throwable> record = (outcome, failure) -> {
+            if (failure != null) {
+                try {
+                    repository.release(scope, key);
+                } finally {
+                    finish(id, claim, null, failure);
+                }
+                return;
+            }
+            Entry entry = outcome.entry() != null ? outcome.entry() : new Entry(requestHash, serialize(outcome.response()));
+            completed.put(id, entry);
+            try {
+                if (outcome.entry() == null) {
+                    repository.complete(scope, key, entry.getResponse(), ttl);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not record the response for Idempotency-Key " + id + ", the key stays claimed", e);
+            } finally {
+                finish(id, claim, entry, null);
+            }
+        };
+        // Recording costs a statement, which must not hold up whatever thread completes the action.
+        return (result.isDone() ? result.whenComplete(record) : result.whenCompleteAsync(record, recorder))
+                .thenApply(Outcome::response);
+    }
+
+    @Override
+    public void close() {
+        recorder.close();
+    }
+
+    private void finish(String id, CompletableFuture<Entry> claim, Entry entry, Throwable failure) {
+        inFlight.remove(id, claim);
+        if (failure != null) {
+            claim.completeExceptionally(failure);
+        } else {
+            claim.complete(entry);
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = clock.getAsLong();
+        if (now >= nextPurgeAt) {
+            nextPurgeAt = now + purgeIntervalMillis;
+            repository.deleteExpired();
+        }
+    }
+
+    private static <T> T replay(Entry entry, String requestHash, Class<T> responseType) {
+        if (!entry.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException("This Idempotency-Key was already used with a different request.");
+        }
+        try {
+            return OBJECT_MAPPER.readValue(entry.getResponse(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String serialize(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String hash(Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(OBJECT_MAPPER.writeValueAsBytes(request)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Outcome<T>(T response, Entry entry) {
+    }
+}
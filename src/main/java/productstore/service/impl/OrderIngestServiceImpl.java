@@ -0,0 +1,285 @@
+package productstore.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import productstore.controller.dto.input.OrderInputDTO;
+import productstore.model.Order;
+import productstore.model.Product;
+import productstore.repository.OrderRepository;
+import productstore.repository.ProductRepository;
+import productstore.repository.UserRepository;
+import productstore.service.OrderIngestService;
+import productstore.service.exception.OrderQueueFullException;
+import productstore.service.exception.ProductNotFoundException;
+import productstore.service.exception.UserNotFoundException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit ingestion for {@code POST /api/orders}, enabled by {@code productstore.orders.ingest.enabled}.
+ * Orders wait in a queue of {@code productstore.orders.ingest.queue-capacity}; a single writer thread
+ * takes whatever has queued up, at most {@code productstore.orders.ingest.batch-size} orders, and
+ * inserts them in one transaction, so one commit is paid per batch instead of per order. Batches grow
+ * by themselves while the previous one commits. A batch that fails is retried one order per
+ * transaction, so only the orders that cannot be inserted fail. When the queue stays full for
+ * {@code productstore.orders.ingest.offer-timeout-ms}, or the writer has stopped, the order is rejected.
+ */
+@Service
+public class OrderIngestServiceImpl implements OrderIngestService, AutoCloseable {
+
+    static final String METER_PREFIX = "productstore.orders.ingest";
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final BlockingQueue<PendingOrder> queue;
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+    private final Thread writer;
+    private volatile boolean running;
+
+    public OrderIngestServiceImpl(OrderRepository orderRepository, UserRepository userRepository,
+                                  ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry, Environment env) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName(OrderIngestServiceImpl.class.getName() + ".writeBatch");
+        this.enabled = env.getProperty("productstore.orders.ingest.enabled", Boolean.class, false);
+        this.batchSize = env.getProperty("productstore.orders.ingest.batch-size", Integer.class, 200);
+        this.offerTimeoutMs = env.getProperty("productstore.orders.ingest.offer-timeout-ms", Long.class, 100L);
+        this.queue = new ArrayBlockingQueue<>(env.getProperty("productstore.orders.ingest.queue-capacity", Integer.class, 10000));
+
+        Gauge.builder(METER_PREFIX + ".queue.depth", queue, BlockingQueue::size)
+                .description("Orders waiting for the ingestion writer")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder(METER_PREFIX + ".batch.size")
+                .description("Orders written per ingestion transaction")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder(METER_PREFIX + ".commit")
+                .description("Latency of ingestion transactions, from the first query to the commit")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::drain, "order-ingest");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            running = true;
+            writer.start();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The returned future completes with the order's id once the batch holding it has committed, or
+     * exceptionally with {@link UserNotFoundException}, {@link ProductNotFoundException},
+     * {@link OrderQueueFullException} or the failure of its insert.
+     */
+    @Override
+    public CompletableFuture<Long> submit(OrderInputDTO orderInputDTO) {
+        if (!enabled) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Order ingestion is not enabled."));
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(stopped());
+        }
+        PendingOrder pending = new PendingOrder(orderInputDTO);
+        try {
+            if (!queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(new OrderQueueFullException("Too many orders in flight, retry later."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        // The writer may have found the queue empty and stopped since the check above; whoever
+        // removes the order from the queue completes it.
+        if (!running && queue.remove(pending)) {
+            pending.future.completeExceptionally(stopped());
+        }
+        return pending.future;
+    }
+
+    /**
+     * Stops accepting orders and waits for the writer to commit those already queued. Orders still
+     * queued when the wait times out are rejected.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        rejectQueued();
+    }
+
+    private void drain() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    running = false;
+                    continue;
+                }
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            running = false;
+            batch.forEach(pending -> pending.future.completeExceptionally(stopped()));
+            rejectQueued();
+        }
+    }
+
+    private void rejectQueued() {
+        for (PendingOrder pending; (pending = queue.poll()) != null; ) {
+            pending.future.completeExceptionally(stopped());
+        }
+    }
+
+    private static OrderQueueFullException stopped() {
+        return new OrderQueueFullException("Order ingestion has stopped, retry later.");
+    }
+
+    private void writeBatch(List<PendingOrder> batch) {
+        try {
+            commit(batch);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+        }
+        for (PendingOrder pending : batch) {
+            if (pending.future.isDone()) {
+                continue;
+            }
+            try {
+                commit(List.of(pending));
+            } catch (RuntimeException e) {
+                fail(pending, e);
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        long start = System.nanoTime();
+        List<PendingOrder> written = transactionTemplate.execute(status -> insert(batch));
+        commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(written.size());
+        written.forEach(pending -> pending.future.complete(pending.order.getId()));
+    }
+
+    /**
+     * A foreign key violation means the user or a product was deleted after the batch checked them,
+     * which is reported the same way as if the check had found them missing.
+     */
+    private void fail(PendingOrder pending, RuntimeException e) {
+        RuntimeException failure = e;
+        if (e instanceof DataIntegrityViolationException) {
+            try {
+                failure = transactionTemplate.execute(status -> {
+                    RuntimeException rejection = rejection(pending,
+                            new HashSet<>(userRepository.findExistingIds(Set.of(pending.input.getUserId()))),
+                            new HashSet<>(productRepository.findExistingIds(new HashSet<>(pending.input.getProductIds()))));
+                    return rejection != null ? rejection : e;
+                });
+            } catch (RuntimeException checkFailure) {
+                e.addSuppressed(checkFailure);
+            }
+        }
+        pending.future.completeExceptionally(failure);
+    }
+
+    /**
+     * Checks the users and products of the whole batch with one query each, fails the orders that
+     * refer to missing ones and saves the rest, which Hibernate inserts in JDBC batches on commit.
+     */
+    private List<PendingOrder> insert(List<PendingOrder> batch) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (PendingOrder pending : batch) {
+            userIds.add(pending.input.getUserId());
+            productIds.addAll(pending.input.getProductIds());
+        }
+        Set<Long> existingUsers = new HashSet<>(userRepository.findExistingIds(userIds));
+        Set<Long> existingProducts = new HashSet<>(productRepository.findExistingIds(productIds));
+
+        List<PendingOrder> accepted = new ArrayList<>(batch.size());
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            RuntimeException rejection = rejection(pending, existingUsers, existingProducts);
+            if (rejection != null) {
+                pending.future.completeExceptionally(rejection);
+            } else {
+                pending.order = new Order(userRepository.getReferenceById(pending.input.getUserId()));
+                List<Product> products = pending.input.getProductIds().stream()
+                        .map(productRepository::getReferenceById)
+                        .toList();
+                pending.order.setOrderProducts(products);
+                orders.add(pending.order);
+                accepted.add(pending);
+            }
+        }
+        orderRepository.saveAll(orders);
+        return accepted;
+    }
+
+    private static RuntimeException rejection(PendingOrder pending, Set<Long> existingUsers, Set<Long> existingProducts) {
+        Long userId = pending.input.getUserId();
+        if (!existingUsers.contains(userId)) {
+            return new UserNotFoundException("User with id " + userId + " not found.");
+        }
+        List<Long> missingProducts = pending.input.getProductIds().stream()
+                .filter(id -> !existingProducts.contains(id))
+                .distinct()
+                .toList();
+        return missingProducts.isEmpty() ? null
+                : new ProductNotFoundException("Products with ids " + missingProducts + " not found.");
+    }
+
+    private static final class PendingOrder {
+
+        private final OrderInputDTO input;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private Order order;
+
+        PendingOrder(OrderInputDTO input) {
+            this.input = input;
+        }
+    }
+}
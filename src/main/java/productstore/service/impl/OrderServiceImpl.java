@@ -4,37 +4,113 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import productstore.controller.dto.input.OrderInputDTO;
 import productstore.controller.dto.input.ProductIdsDTO;
+import productstore.controller.dto.output.OrderExportDTO;
+import productstore.controller.dto.output.OrderExportItemDTO;
 import productstore.controller.dto.output.OrderOutputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
+import productstore.controller.dto.output.UserOutputDTO;
 import productstore.controller.mapper.OrderMapper;
 import productstore.model.Order;
-import productstore.model.Product;
+import productstore.model.OrderItem;
 import productstore.repository.OrderRepository;
+import productstore.repository.UserRepository;
 import productstore.service.OrderService;
+import productstore.service.FieldSet;
+import productstore.service.Pagination;
+import productstore.service.cache.SingleFlight;
 import productstore.service.exception.OrderNotFoundException;
+import productstore.service.exception.PreconditionFailedException;
+import productstore.service.exception.UserNotFoundException;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
     private final OrderMapper orderMapper;
+    private final SingleFlight singleFlight;
 
-    public OrderServiceImpl(OrderRepository orderRepository, OrderMapper orderMapper) {
+    public OrderServiceImpl(OrderRepository orderRepository, UserRepository userRepository, OrderMapper orderMapper,
+                            SingleFlight singleFlight) {
         this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
         this.orderMapper = orderMapper;
+        this.singleFlight = singleFlight;
     }
 
     @Transactional(readOnly = true)
-    public List<OrderOutputDTO> getAllOrders() {
-        return orderMapper.toDTOs(orderRepository.findAll());
+    public PageOutputDTO<OrderOutputDTO> getAllOrders(Long after, int limit) {
+        int pageSize = Pagination.normalizeLimit(limit);
+        List<Long> ids = orderRepository.findIdsAfter(Pagination.afterOrFirst(after), Pagination.lookAhead(pageSize));
+        List<Long> pageIds = Pagination.pageIds(ids, pageSize);
+        List<Order> orders = pageIds.isEmpty() ? List.of() : orderRepository.findAllByIdInOrderByIdAsc(pageIds);
+        return new PageOutputDTO<>(orderMapper.toDTOs(orders), Pagination.nextCursor(ids, pageSize));
     }
 
+    /**
+     * Without {@code products} or {@code total} the items are never joined: the page of ids alone answers
+     * {@code fields=id}, and the user is read with one join per page when it is selected.
+     */
+    @Transactional(readOnly = true)
+    public PageOutputDTO<OrderOutputDTO> getAllOrders(Long after, int limit, FieldSet fields) {
+        if (fields.includes("products") || fields.includes("total")) {
+            return getAllOrders(after, limit);
+        }
+        int pageSize = Pagination.normalizeLimit(limit);
+        List<Long> ids = orderRepository.findIdsAfter(Pagination.afterOrFirst(after), Pagination.lookAhead(pageSize));
+        List<Long> pageIds = Pagination.pageIds(ids, pageSize);
+        List<OrderOutputDTO> content;
+        if (pageIds.isEmpty() || !fields.includes("user")) {
+            content = pageIds.stream().map(id -> new OrderOutputDTO(id, null, null)).toList();
+        } else {
+            content = orderRepository.findSummariesByIdIn(pageIds).stream()
+                    .map(row -> new OrderOutputDTO((Long) row[0],
+                            new UserOutputDTO((Long) row[1], (String) row[2], (String) row[3]), null))
+                    .toList();
+        }
+        return new PageOutputDTO<>(content, Pagination.nextCursor(ids, pageSize));
+    }
+
+    /**
+     * Pages through a user's orders by id, walking the {@code (user_id, id)} index. The user is only
+     * looked up when the page comes back empty, to tell an unknown user from one without orders.
+     */
+    @Transactional(readOnly = true)
+    public PageOutputDTO<OrderOutputDTO> getOrdersByUserId(Long userId, Long after, int limit) {
+        int pageSize = Pagination.normalizeLimit(limit);
+        List<Long> ids = orderRepository.findIdsByUserIdAfter(userId, Pagination.afterOrFirst(after), Pagination.lookAhead(pageSize));
+        List<Long> pageIds = Pagination.pageIds(ids, pageSize);
+        if (pageIds.isEmpty()) {
+            if (!userRepository.existsById(userId)) {
+                throw new UserNotFoundException("User with id " + userId + " not found.");
+            }
+            return new PageOutputDTO<>(List.of(), null);
+        }
+        List<Order> orders = orderRepository.findAllByIdInOrderByIdAsc(pageIds);
+        return new PageOutputDTO<>(orderMapper.toDTOs(orders), Pagination.nextCursor(ids, pageSize));
+    }
+
+    /**
+     * Concurrent calls for the same id share one load.
+     */
     @Transactional(readOnly = true)
     public OrderOutputDTO getOrderById(Long id) {
-        return orderMapper.toDTO(orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException("Order with id " + id + " not found.")));
+        return singleFlight.load("orders", id, () -> loadOrder(id));
+    }
+
+    /**
+     * Shares the load only among callers that read the same {@code versionTag} before calling, so the
+     * order returned is never older than the tag a caller sends along with it.
+     */
+    @Transactional(readOnly = true)
+    public OrderOutputDTO getOrderById(Long id, String versionTag) {
+        return singleFlight.load("orders.tagged", List.of(id, versionTag), () -> loadOrder(id));
     }
 
     @Transactional
@@ -46,21 +122,116 @@ public class OrderServiceImpl implements OrderService {
     public void deleteOrderById(Long id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new OrderNotFoundException("Order not found with id " + id));
-        order.getOrderProducts().clear();
-        orderRepository.save(order);
-        orderRepository.deleteById(id);
+        orderRepository.delete(order);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOrders(Consumer<OrderExportDTO> consumer) {
+        try (Stream<Object[]> rows = orderRepository.streamOrderItemRows()) {
+            OrderExportDTO current = null;
+            for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+                Object[] row = iterator.next();
+                Long orderId = (Long) row[0];
+                if (current == null || !current.getId().equals(orderId)) {
+                    if (current != null) {
+                        consumer.accept(current);
+                    }
+                    current = new OrderExportDTO(orderId, (Long) row[1]);
+                }
+                if (row[2] != null) {
+                    current.getItems().add(new OrderExportItemDTO((Long) row[2], (Integer) row[3]));
+                }
+            }
+            if (current != null) {
+                consumer.accept(current);
+            }
+        }
     }
 
     @Transactional
     public OrderOutputDTO updateOrderById(Long id, ProductIdsDTO productIdsDTO) {
-       Order order = orderRepository.findById(id)
-               .orElseThrow(() -> new OrderNotFoundException("Order with id " + id + " not found."));
-       List<Product> products2 = orderMapper.mapProductIdsToProducts(productIdsDTO.getProductIds());
-       List<Product> products1 = order.getOrderProducts();
-       List<Product> orderProducts = Stream.of(products1, products2)
-                       .flatMap(List::stream)
-                               .toList();
-       order.setOrderProducts(orderProducts);
-       return orderMapper.toDTO(orderRepository.save(order));
+        return updateOrderById(id, productIdsDTO, null);
+    }
+
+    /**
+     * Updates the order only if its version tag is one of {@code ifMatch}; {@code null} updates it
+     * unconditionally. The order row stays locked from the check until commit, so concurrent updates
+     * cannot overwrite each other. Item changes alter the tag through their quantities, so the
+     * order's own version is left to Hibernate.
+     */
+    @Transactional
+    public OrderOutputDTO updateOrderById(Long id, ProductIdsDTO productIdsDTO, Set<String> ifMatch) {
+        Order order = orderRepository.lockById(id)
+                .orElseThrow(() -> new OrderNotFoundException("Order with id " + id + " not found."));
+        if (ifMatch != null && !ifMatch.contains(versionTag(order))) {
+            throw new PreconditionFailedException("Order with id " + id + " has been modified.");
+        }
+        order.addProducts(orderMapper.mapProductIdsToProducts(productIdsDTO.getProductIds()));
+        orderRepository.flush();
+        OrderOutputDTO orderOutputDTO = orderMapper.toDTO(order);
+        orderOutputDTO.setVersionTag(versionTag(order));
+        return orderOutputDTO;
+    }
+
+    /**
+     * The order's representation also embeds its user and the products' names and prices, so its
+     * tag combines the order's version with those of the user and of every item's product.
+     */
+    @Transactional(readOnly = true)
+    public String getOrderVersionTag(Long id) {
+        List<Object[]> rows = orderRepository.findVersionRows(id);
+        if (rows.isEmpty()) {
+            throw new OrderNotFoundException("Order with id " + id + " not found.");
+        }
+        VersionTag tag = new VersionTag((Long) rows.get(0)[0], (Long) rows.get(0)[1]);
+        for (Object[] row : rows) {
+            if (row[2] != null) {
+                tag.addItem((Long) row[2], (Long) row[3], (Integer) row[4]);
+            }
+        }
+        return tag.toString();
+    }
+
+    private OrderOutputDTO loadOrder(Long id) {
+        return orderMapper.toDTO(orderRepository.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException("Order with id " + id + " not found.")));
+    }
+
+    private static String versionTag(Order order) {
+        VersionTag tag = new VersionTag(order.getVersion(), order.getUser().getVersion());
+        for (OrderItem item : order.getItems()) {
+            tag.addItem(item.getProduct().getId(), item.getProduct().getVersion(), item.getQuantity());
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Items are combined by addition so that the tag does not depend on their order.
+     */
+    private static final class VersionTag {
+
+        private final long orderVersion;
+        private final long userVersion;
+        private long items;
+
+        VersionTag(long orderVersion, long userVersion) {
+            this.orderVersion = orderVersion;
+            this.userVersion = userVersion;
+        }
+
+        void addItem(long productId, long productVersion, int quantity) {
+            items += mix(mix(mix(productId) ^ productVersion) ^ quantity);
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+            value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return value ^ (value >>> 33);
+        }
+
+        @Override
+        public String toString() {
+            return orderVersion + "-" + userVersion + "-" + Long.toHexString(items);
+        }
     }
 }
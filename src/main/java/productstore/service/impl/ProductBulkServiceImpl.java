@@ -0,0 +1,130 @@
+package productstore.service.impl;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import productstore.controller.dto.input.ProductBulkInputDTO;
+import productstore.controller.dto.output.ProductBulkResultDTO;
+import productstore.controller.dto.output.ProductBulkResultDTO.Status;
+import productstore.model.Product;
+import productstore.repository.ProductRepository;
+import productstore.service.ProductBulkService;
+import productstore.service.cache.ProductCache;
+
+import java.util.*;
+
+@Service
+public class ProductBulkServiceImpl implements ProductBulkService {
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ProductBulkServiceImpl(ProductRepository productRepository, ProductCache productCache, Validator validator,
+                                  PlatformTransactionManager transactionManager, Environment env) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Integer.parseInt(env.getProperty("productstore.bulk.chunk-size", "500"));
+    }
+
+    /**
+     * Consumes the input chunk by chunk and commits every chunk in its own transaction, so a failure
+     * only rolls back the chunk it happened in. Items with an id update that product, or report it
+     * not found from the update count; items without one create a new product. A chunk the database
+     * rejects is retried item by item, and the items it still rejects are reported as failed.
+     */
+    public List<ProductBulkResultDTO> saveProducts(Iterator<ProductBulkInputDTO> products) {
+        List<ProductBulkResultDTO> results = new ArrayList<>();
+        List<ProductBulkInputDTO> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (products.hasNext()) {
+            chunk.add(products.next());
+            if (chunk.size() == chunkSize || !products.hasNext()) {
+                int firstIndex = index - chunk.size() + 1;
+                results.addAll(saveChunkOrItems(chunk, firstIndex));
+                chunk.clear();
+            }
+            index++;
+        }
+        return results;
+    }
+
+    private List<ProductBulkResultDTO> saveChunkOrItems(List<ProductBulkInputDTO> chunk, int firstIndex) {
+        try {
+            return transactionTemplate.execute(status -> saveChunk(chunk, firstIndex));
+        } catch (DataAccessException e) {
+            if (chunk.size() == 1) {
+                return List.of(new ProductBulkResultDTO(firstIndex, chunk.get(0).getId(), Status.FAILED));
+            }
+            List<ProductBulkResultDTO> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                results.addAll(saveChunkOrItems(List.of(chunk.get(i)), firstIndex + i));
+            }
+            return results;
+        }
+    }
+
+    private List<ProductBulkResultDTO> saveChunk(List<ProductBulkInputDTO> chunk, int firstIndex) {
+        ProductBulkResultDTO[] results = new ProductBulkResultDTO[chunk.size()];
+        List<Integer> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductBulkInputDTO item = chunk.get(i);
+            Set<ConstraintViolation<ProductBulkInputDTO>> violations = validator.validate(item);
+            if (violations.isEmpty()) {
+                valid.add(i);
+            } else {
+                Map<String, String> errors = new HashMap<>();
+                violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                results[i] = new ProductBulkResultDTO(firstIndex + i, item.getId(), Status.INVALID, errors);
+            }
+        }
+
+        long newProducts = valid.stream().filter(i -> chunk.get(i).getId() == null).count();
+        Iterator<Long> allocatedIds = productRepository.allocateIds((int) newProducts).iterator();
+
+        List<Product> inserts = new ArrayList<>(valid.size());
+        Map<Long, List<Integer>> updatesById = new LinkedHashMap<>();
+        for (int i : valid) {
+            ProductBulkInputDTO item = chunk.get(i);
+            if (item.getId() == null) {
+                Long id = allocatedIds.next();
+                inserts.add(new Product.Builder().withId(id).withName(item.getName()).withPriceCents(item.getPrice()).build());
+                results[i] = new ProductBulkResultDTO(firstIndex + i, id, Status.CREATED);
+            } else {
+                updatesById.computeIfAbsent(item.getId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            productRepository.insertAll(inserts);
+        }
+        if (!updatesById.isEmpty()) {
+            // An id repeated in the chunk is written once, with its last values, and every
+            // occurrence reports the outcome.
+            List<Product> updates = new ArrayList<>(updatesById.size());
+            for (List<Integer> occurrences : updatesById.values()) {
+                ProductBulkInputDTO item = chunk.get(occurrences.get(occurrences.size() - 1));
+                updates.add(new Product.Builder().withId(item.getId()).withName(item.getName()).withPriceCents(item.getPrice()).build());
+            }
+            int[] counts = productRepository.updateAll(updates);
+            int u = 0;
+            for (Map.Entry<Long, List<Integer>> update : updatesById.entrySet()) {
+                Status status = counts[u++] > 0 ? Status.UPDATED : Status.NOT_FOUND;
+                if (status == Status.UPDATED) {
+                    productCache.evict(update.getKey());
+                }
+                for (int i : update.getValue()) {
+                    results[i] = new ProductBulkResultDTO(firstIndex + i, update.getKey(), status);
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+}
@@ -1,30 +1,46 @@
 package productstore.service.impl;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import productstore.controller.dto.input.ProductInputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.ProductOutputDTO;
 import productstore.controller.mapper.ProductMapper;
-import productstore.model.Order;
 import productstore.model.Product;
-import productstore.repository.OrderRepository;
 import productstore.repository.ProductRepository;
+import productstore.service.FieldSet;
+import productstore.service.Pagination;
+import productstore.service.cache.ProductCache;
+import productstore.service.cache.SingleFlight;
 import productstore.service.ProductService;
+import productstore.service.exception.PreconditionFailedException;
 import productstore.service.exception.ProductNotFoundException;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
-    private final OrderRepository orderRepository;
+    private final ProductCache productCache;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate primaryRead;
 
-    public ProductServiceImpl(ProductRepository productRepository, ProductMapper productMapper, OrderRepository orderRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, ProductMapper productMapper, ProductCache productCache,
+                              SingleFlight singleFlight, PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
-        this.orderRepository = orderRepository;
+        this.productCache = productCache;
+        this.singleFlight = singleFlight;
+        this.primaryRead = new TransactionTemplate(transactionManager);
     }
 
     @Transactional(readOnly = true)
@@ -34,40 +50,102 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Transactional(readOnly = true)
-    public List<ProductOutputDTO> getAllProducts() {
-        return productMapper.toDTOs(productRepository.findAll());
+    public List<Product> findAllByIds(List<Long> ids) {
+        Map<Long, Product> productsById = productRepository.findByIdIn(new HashSet<>(ids)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Long> missingIds = ids.stream()
+                .filter(id -> !productsById.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new ProductNotFoundException("Products with ids " + missingIds + " not found.");
+        }
+        return ids.stream()
+                .map(productsById::get)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public PageOutputDTO<ProductOutputDTO> getAllProducts(Long after, int limit) {
+        int pageSize = Pagination.normalizeLimit(limit);
+        List<Long> ids = productRepository.findIdsAfter(Pagination.afterOrFirst(after), Pagination.lookAhead(pageSize));
+        List<Long> pageIds = Pagination.pageIds(ids, pageSize);
+        List<Product> products = pageIds.isEmpty() ? List.of() : productRepository.findAllByIdInOrderByIdAsc(pageIds);
+        return new PageOutputDTO<>(productMapper.toDTOs(products), Pagination.nextCursor(ids, pageSize));
     }
 
+    /**
+     * Products have no associations, so any field selection is served by a single projection
+     * query instead of loading entities; the unselected fields are dropped when serializing.
+     */
     @Transactional(readOnly = true)
+    public PageOutputDTO<ProductOutputDTO> getAllProducts(Long after, int limit, FieldSet fields) {
+        if (fields.isAll()) {
+            return getAllProducts(after, limit);
+        }
+        int pageSize = Pagination.normalizeLimit(limit);
+        List<ProductOutputDTO> rows = productRepository.findSummariesAfter(Pagination.afterOrFirst(after), Pagination.lookAhead(pageSize));
+        return new PageOutputDTO<>(Pagination.page(rows, pageSize), Pagination.nextCursor(rows, pageSize, ProductOutputDTO::getId));
+    }
+
+    /**
+     * Not transactional on purpose: a cache hit must not borrow a pooled connection. On a miss the
+     * product is read in its own read-write transaction, which runs on the primary: a replica read
+     * right after an update could cache the old row for the whole expiry. Concurrent misses for the
+     * id wait for that one load instead of blocking inside the cache.
+     */
     public ProductOutputDTO getProductById(Long id) {
-        return productMapper.toDTO(productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException("Product with id " + id + " not found.")));
+        ProductOutputDTO cached = productCache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        return singleFlight.load(ProductCache.FLIGHT, id, () -> productCache.load(id, key -> primaryRead.execute(status ->
+                productMapper.toDTO(productRepository.findById(key)
+                        .orElseThrow(() -> new ProductNotFoundException("Product with id " + key + " not found."))))));
     }
 
     @Transactional
     public ProductOutputDTO saveProduct(ProductInputDTO product) {
-        return productMapper.toDTO(productRepository.save(productMapper.toEntity(product)));
+        Product savedProduct = productRepository.save(productMapper.toEntity(product));
+        productCache.evict(savedProduct.getId());
+        return productMapper.toDTO(savedProduct);
     }
 
+    /**
+     * Locks the product row first so that orders created concurrently either commit their links
+     * before the delete sees them or fail on the foreign key afterwards, never leaving a dangling link.
+     */
     @Transactional
     public void deleteProductById(Long id) {
-        Product product = productRepository.findById(id)
+        productRepository.lockById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id " + id));
-        for (Order order : product.getOrders()) {
-            order.getOrderProducts().remove(product);
-            orderRepository.save(order);
-        }
-        product.getOrders().clear();
-        productRepository.delete(product);
+        productRepository.deleteOrderItems(id);
+        productRepository.deleteProductById(id);
+        productCache.evict(id);
     }
 
     @Transactional
     public ProductOutputDTO updateProductById(Long id, ProductInputDTO productInputDTO) {
+        return updateProductById(id, productInputDTO, null);
+    }
+
+    /**
+     * Updates the product only if its version is one of {@code ifMatch}; {@code null} updates it
+     * unconditionally. The flush assigns the new version before it is mapped, and a concurrent
+     * update of the same version fails it with an optimistic locking exception.
+     */
+    @Transactional
+    public ProductOutputDTO updateProductById(Long id, ProductInputDTO productInputDTO, Set<String> ifMatch) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id " + id));
+        if (ifMatch != null && !ifMatch.contains(String.valueOf(product.getVersion()))) {
+            throw new PreconditionFailedException("Product with id " + id + " has been modified.");
+        }
         product.setName(productInputDTO.getName());
-        product.setPrice(productInputDTO.getPrice());
+        product.setPriceCents(productInputDTO.getPrice());
         productRepository.save(product);
+        productRepository.flush();
+        productCache.evict(id);
         return productMapper.toDTO(product);
     }
 }
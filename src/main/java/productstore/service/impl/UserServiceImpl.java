@@ -4,48 +4,103 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import productstore.controller.dto.input.UserChangeEmailDTO;
 import productstore.controller.dto.input.UserInputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.UserOutputDTO;
 import productstore.controller.mapper.UserMapper;
 import productstore.model.User;
 import productstore.repository.UserRepository;
+import productstore.service.FieldSet;
+import productstore.service.Pagination;
 import productstore.service.UserService;
+import productstore.service.cache.SingleFlight;
 import productstore.service.exception.UserNotFoundException;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final SingleFlight singleFlight;
 
-    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper) {
+    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper, SingleFlight singleFlight) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.singleFlight = singleFlight;
     }
 
+    /**
+     * Returns an uninitialized reference for pointing new rows at the user, after a primary-key
+     * existence check, so neither the user nor its orders are loaded.
+     */
     @Transactional(readOnly = true)
-    public User findById(Long id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found."));
+    public User getReferenceById(Long id) {
+        if (!userRepository.existsById(id)) {
+            throw new UserNotFoundException("User with id " + id + " not found.");
+        }
+        return userRepository.getReferenceById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public PageOutputDTO<UserOutputDTO> getAllUsers(Long after, int limit) {
+        int pageSize = Pagination.normalizeLimit(limit);
+        List<Long> ids = userRepository.findIdsAfter(Pagination.afterOrFirst(after), Pagination.lookAhead(pageSize));
+        List<Long> pageIds = Pagination.pageIds(ids, pageSize);
+        if (pageIds.isEmpty()) {
+            return new PageOutputDTO<>(List.of(), null);
+        }
+        List<User> users = userRepository.findAllByIdInOrderByIdAsc(pageIds);
+        Map<Long, Long> orderCounts = new HashMap<>();
+        for (Object[] row : userRepository.countOrdersByUserIds(pageIds)) {
+            orderCounts.put((Long) row[0], (Long) row[1]);
+        }
+        List<UserOutputDTO> content = users.stream()
+                .map(user -> userMapper.toDTO(user, orderCounts.getOrDefault(user.getId(), 0L)))
+                .toList();
+        return new PageOutputDTO<>(content, Pagination.nextCursor(ids, pageSize));
     }
 
+    /**
+     * Without {@code orderCount} the users come from one projection query and the order counts are
+     * not queried at all.
+     */
     @Transactional(readOnly = true)
-    public List<UserOutputDTO> getAllUsers() {
-        return userMapper.toDTOs(userRepository.findAll());
+    public PageOutputDTO<UserOutputDTO> getAllUsers(Long after, int limit, FieldSet fields) {
+        if (fields.includes("orderCount")) {
+            return getAllUsers(after, limit);
+        }
+        int pageSize = Pagination.normalizeLimit(limit);
+        List<UserOutputDTO> rows = userRepository.findSummariesAfter(Pagination.afterOrFirst(after), Pagination.lookAhead(pageSize));
+        return new PageOutputDTO<>(Pagination.page(rows, pageSize), Pagination.nextCursor(rows, pageSize, UserOutputDTO::getId));
     }
 
+    /**
+     * Concurrent calls for the same id share one load. Connections are fetched lazily, so the
+     * transactions of the callers that only wait for it never borrow one.
+     */
     @Transactional(readOnly = true)
     public UserOutputDTO getUserById(Long id) {
-        return userRepository.findById(id)
-                .map(userMapper::toDTO)
-                .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found."));
+        return singleFlight.load("users", id, () -> userRepository.findById(id)
+                .map(user -> userMapper.toDTO(user, userRepository.countOrders(id)))
+                .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found.")));
+    }
 
+    @Transactional(readOnly = true)
+    public UserOutputDTO getUserById(Long id, FieldSet fields) {
+        if (fields.includes("orderCount")) {
+            return getUserById(id);
+        }
+        return singleFlight.load("users.summary", id, () -> userRepository.findById(id)
+                .map(userMapper::toSummaryDTO)
+                .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found.")));
     }
 
     @Transactional
     public UserOutputDTO saveUser(UserInputDTO userDTO) {
-        return userMapper.toDTO(userRepository.save(userMapper.toEntity(userDTO)));
+        return userMapper.toDTO(userRepository.save(userMapper.toEntity(userDTO)), 0L);
     }
 
     @Transactional
@@ -59,6 +114,6 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found."));
         user.setEmail(userChangeEmailDTO.getEmail());
         userRepository.save(user);
-        return userMapper.toDTO(user);
+        return userMapper.toDTO(user, userRepository.countOrders(id));
     }
 }
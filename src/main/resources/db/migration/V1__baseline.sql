@@ -0,0 +1,44 @@
+CREATE TABLE IF NOT EXISTS users (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) UNIQUE NOT NULL CHECK (trim(name) <> ''),
+    email VARCHAR(255) UNIQUE NOT NULL CHECK (trim(email) <> '')
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL CHECK (trim(name) <> ''),
+    price DECIMAL(10, 2) NOT NULL CHECK (price >= 0)
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    CONSTRAINT fk_user FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL DEFAULT 1 CHECK (quantity > 0),
+    PRIMARY KEY (order_id, product_id),
+    CONSTRAINT fk_order_item_order FOREIGN KEY (order_id) REFERENCES orders(id),
+    CONSTRAINT fk_order_item_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+-- Order lines used to live in orders_products, one row per product. Carry them over as items with
+-- quantity 1 and drop the old table. Safe to re-run against an existing database.
+DO $$
+BEGIN
+    IF to_regclass('orders_products') IS NOT NULL THEN
+        INSERT INTO order_items (order_id, product_id, quantity)
+        SELECT order_id, product_id, COUNT(*) FROM orders_products GROUP BY order_id, product_id
+        ON CONFLICT (order_id, product_id) DO NOTHING;
+        DROP TABLE orders_products;
+    END IF;
+END $$;
+
+-- Hibernate allocates ids with the pooled optimizer (allocationSize = 50), so the sequences
+-- must advance by the same step. Safe to re-run against an existing database.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
@@ -0,0 +1,5 @@
+-- Foreign-key columns that are searched or deleted by on their own: orders by user, and order
+-- items by product (deleting a product removes its items). order_items(order_id, ...) is already
+-- covered by the primary key.
+CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders (user_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON order_items (product_id);
@@ -0,0 +1,4 @@
+-- A user's order history is paged by id, so index (user_id, id) instead of user_id alone: the
+-- keyset query and the per-user order count both become range scans of this one index.
+CREATE INDEX IF NOT EXISTS idx_orders_user_id_id ON orders (user_id, id);
+DROP INDEX IF EXISTS idx_orders_user_id;
@@ -0,0 +1,12 @@
+-- Responses of POST requests sent with an Idempotency-Key, replayed when the request is retried.
+-- A row without a response is claimed by a request still in progress; expires_at bounds both the
+-- claim and the replay window, and expired rows may be taken over or purged.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope VARCHAR(64) NOT NULL,
+    idempotency_key TEXT NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    response TEXT,
+    expires_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,35 @@
+package productstore.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheConfigTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreatesBoundedRegionsWithPerRegionOverrides() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("productstore.cache.entities.maximum-size", "500")
+                .withProperty("productstore.cache.entities.products.maximum-size", "2000")
+                .withProperty("productstore.cache.entities.expire-after-write-seconds", "60");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        try (CacheManager cacheManager = new CacheConfig(env).entityCacheManager(meterRegistry)) {
+            for (String region : CacheConfig.ENTITY_REGIONS) {
+                Cache<Object, Object> cache = cacheManager.getCache(region);
+                CaffeineConfiguration<Object, Object> configuration = cache.getConfiguration(CaffeineConfiguration.class);
+                assertEquals(region.equals("products") ? 2000 : 500, configuration.getMaximumSize().getAsLong());
+                assertEquals(TimeUnit.SECONDS.toNanos(60), configuration.getExpireAfterWrite().getAsLong());
+                assertNotNull(meterRegistry.find("cache.gets").tag("cache", region).meter());
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package productstore.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Mock
+    private Connection connection;
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new ConnectionLimitingDataSource(pool, 1, 50);
+    }
+
+    @Test
+    public void testBlocksBorrowersBeyondPoolSize() throws SQLException {
+        when(pool.getConnection()).thenReturn(connection);
+
+        Connection borrowed = dataSource.getConnection();
+
+        assertEquals(0, dataSource.availablePermits());
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        verify(pool, times(1)).getConnection();
+
+        borrowed.close();
+
+        assertEquals(1, dataSource.availablePermits());
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    public void testReleasesPermitOnlyOncePerConnection() throws SQLException {
+        when(pool.getConnection()).thenReturn(connection);
+
+        Connection borrowed = dataSource.getConnection();
+        borrowed.close();
+        borrowed.close();
+
+        assertEquals(1, dataSource.availablePermits());
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    public void testReleasesPermitWhenPoolFails() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    public void testDelegatesOtherCalls() throws SQLException {
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+
+        Connection borrowed = dataSource.getConnection();
+
+        assertTrue(borrowed.getAutoCommit());
+        assertEquals(borrowed, borrowed);
+    }
+}
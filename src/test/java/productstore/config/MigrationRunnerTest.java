@@ -0,0 +1,69 @@
+package productstore.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestDataSourceConfig.class)
+@ActiveProfiles("test")
+public class MigrationRunnerTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void shouldRecordAppliedMigrationsWithChecksums() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<MigrationRunner.Migration> migrations = MigrationRunner.load();
+
+        assertThat(migrations).extracting(MigrationRunner.Migration::version).containsExactly(1, 2, 3, 4, 5);
+        assertThat(jdbcTemplate.queryForList("SELECT checksum FROM schema_migrations ORDER BY version", Long.class))
+                .containsExactlyElementsOf(migrations.stream().map(MigrationRunner.Migration::checksum).toList());
+    }
+
+    @Test
+    void shouldCreateForeignKeyIndexes() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename IN ('orders', 'order_items')", String.class))
+                .contains("idx_orders_user_id_id", "idx_order_items_product_id")
+                .doesNotContain("idx_orders_user_id");
+    }
+
+    @Test
+    void shouldSkipWhenSchemaIsUpToDate() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Integer before = jdbcTemplate.queryForObject("SELECT count(*) FROM schema_migrations", Integer.class);
+
+        new MigrationRunner(dataSource).afterPropertiesSet();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM schema_migrations", Integer.class))
+                .isEqualTo(before);
+    }
+
+    @Test
+    void shouldRejectMigrationChangedAfterItWasApplied() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Long checksum = jdbcTemplate.queryForObject("SELECT checksum FROM schema_migrations WHERE version = 2", Long.class);
+        jdbcTemplate.update("UPDATE schema_migrations SET checksum = 0 WHERE version = 2");
+        try {
+            assertThatThrownBy(() -> new MigrationRunner(dataSource).afterPropertiesSet())
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("V2__indexes.sql was changed after it was applied");
+        } finally {
+            jdbcTemplate.update("UPDATE schema_migrations SET checksum = ? WHERE version = 2", checksum);
+        }
+    }
+}
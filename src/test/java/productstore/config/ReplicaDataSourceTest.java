@@ -0,0 +1,103 @@
+package productstore.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaDataSourceTest {
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private final AtomicLong now = new AtomicLong(10_000);
+
+    private ReplicaDataSource replicaDataSource;
+
+    @BeforeEach
+    public void setUp() {
+        replicaDataSource = new ReplicaDataSource(replica, primary, 5000, 1000, now::get);
+    }
+
+    private void replicaLagIs(double lagMillis) throws SQLException {
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaDataSource.LAG_QUERY)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(lagMillis);
+    }
+
+    @Test
+    public void testUsesReplicaWithinToleratedLag() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        replicaLagIs(200);
+
+        assertSame(replicaConnection, replicaDataSource.getConnection());
+        assertSame(replicaConnection, replicaDataSource.getConnection());
+
+        verify(statement, times(1)).executeQuery(ReplicaDataSource.LAG_QUERY);
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    public void testFallsBackToPrimaryWhenReplicaLags() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        replicaLagIs(60_000);
+
+        assertSame(primaryConnection, replicaDataSource.getConnection());
+        assertSame(primaryConnection, replicaDataSource.getConnection());
+
+        assertFalse(replicaDataSource.isReplicaUsable());
+        verify(replicaConnection, times(1)).close();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    public void testRetriesReplicaAfterCheckInterval() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("replica down")).thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        replicaLagIs(0);
+
+        assertSame(primaryConnection, replicaDataSource.getConnection());
+        now.addAndGet(1000);
+
+        assertSame(replicaConnection, replicaDataSource.getConnection());
+        assertTrue(replicaDataSource.isReplicaUsable());
+    }
+
+    @Test
+    public void testUsesPrimaryWithoutReplica() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaDataSource withoutReplica = new ReplicaDataSource(null, primary, 5000, 1000, now::get);
+
+        assertSame(primaryConnection, withoutReplica.getConnection());
+        assertFalse(withoutReplica.isReplicaUsable());
+    }
+}
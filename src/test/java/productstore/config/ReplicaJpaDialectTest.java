@@ -0,0 +1,49 @@
+package productstore.config;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import javax.sql.DataSource;
+
+import static org.mockito.Mockito.*;
+
+public class ReplicaJpaDialectTest {
+
+    private final SessionImplementor session = mock(SessionImplementor.class, RETURNS_DEEP_STUBS);
+    private final EntityManager entityManager = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+
+    private ReplicaJpaDialect dialect(DataSource replica) {
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        return new ReplicaJpaDialect(new ReplicaDataSource(replica, mock(DataSource.class), 5000, 1000));
+    }
+
+    private static DefaultTransactionDefinition definition(boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(readOnly);
+        return definition;
+    }
+
+    @Test
+    public void testReadOnlyTransactionsDoNotPutWithReplica() throws Exception {
+        dialect(mock(DataSource.class)).beginTransaction(entityManager, definition(true));
+
+        verify(session).setCacheMode(CacheMode.GET);
+    }
+
+    @Test
+    public void testReadWriteTransactionsPut() throws Exception {
+        dialect(mock(DataSource.class)).beginTransaction(entityManager, definition(false));
+
+        verify(session, never()).setCacheMode(any());
+    }
+
+    @Test
+    public void testReadOnlyTransactionsPutWithoutReplica() throws Exception {
+        dialect(null).beginTransaction(entityManager, definition(true));
+
+        verify(session, never()).setCacheMode(any());
+    }
+}
@@ -0,0 +1,76 @@
+package productstore.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SqlMetricsDataSourceTest {
+
+    private static final String SQL = "select id from products where id=?";
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private SqlMetricsDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        dataSource = new SqlMetricsDataSource(target);
+        when(target.getConnection()).thenReturn(connection);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SqlMetrics.clear();
+    }
+
+    @Test
+    public void testCountsStatementsAndRowsWithinRequest() throws SQLException {
+        SqlMetrics metrics = SqlMetrics.start();
+        when(connection.prepareStatement(SQL)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1, PreparedStatement.SUCCESS_NO_INFO});
+
+        PreparedStatement prepared = dataSource.getConnection().prepareStatement(SQL);
+        ResultSet rows = prepared.executeQuery();
+        while (rows.next()) {
+            rows.getLong(1);
+        }
+        prepared.executeBatch();
+
+        assertEquals(2, metrics.getStatements());
+        assertEquals(4, metrics.getRows());
+        assertEquals(2, metrics.getMostRepeated().getValue());
+        verify(resultSet, times(2)).getLong(1);
+    }
+
+    @Test
+    public void testLeavesStatementsUnwrappedOutsideRequest() throws SQLException {
+        when(connection.prepareStatement(SQL)).thenReturn(statement);
+
+        assertSame(statement, dataSource.getConnection().prepareStatement(SQL));
+    }
+}
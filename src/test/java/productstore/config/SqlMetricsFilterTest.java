@@ -0,0 +1,51 @@
+package productstore.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlMetricsFilterTest {
+
+    private final SqlMetricsFilter filter = new SqlMetricsFilter(2);
+
+    @Test
+    public void testWritesServerTimingBeforeBodyIsWritten() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            SqlMetrics metrics = SqlMetrics.current();
+            metrics.recordExecution("select * from products where id=?", 1_500_000);
+            metrics.recordRows(3);
+            res.getWriter().write("{}");
+            res.flushBuffer();
+            metrics.recordExecution("select * from products where id=?", 1_000_000);
+        });
+
+        assertEquals("db;dur=1.50;desc=\"1 statements, 3 rows\"", response.getHeader(SqlMetricsFilter.HEADER));
+        assertNull(SqlMetrics.current());
+    }
+
+    @Test
+    public void testWritesServerTimingForEmptyResponse() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("DELETE", "/api/orders/1"), response,
+                (req, res) -> SqlMetrics.current().recordExecution("delete from orders where id=?", 0));
+
+        assertEquals("db;dur=0.00;desc=\"1 statements, 0 rows\"", response.getHeader(SqlMetricsFilter.HEADER));
+    }
+
+    @Test
+    public void testFindsMostRepeatedStatement() {
+        SqlMetrics metrics = new SqlMetrics();
+        metrics.recordExecution("select * from users where id=?", 0);
+        metrics.recordExecution("select * from products where id=?", 0);
+        metrics.recordExecution("select * from products where id=?", 0);
+
+        assertEquals("select * from products where id=?", metrics.getMostRepeated().getKey());
+        assertEquals(2, metrics.getMostRepeated().getValue());
+    }
+}
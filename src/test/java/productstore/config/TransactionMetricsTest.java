@@ -0,0 +1,41 @@
+package productstore.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionExecution;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TransactionMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final TransactionMetrics transactionMetrics = new TransactionMetrics(registry);
+
+    private double count(String method, String outcome) {
+        return registry.get(TransactionMetrics.METER).tag("method", method).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    public void testCountsOutcomesPerServiceMethod() {
+        TransactionExecution saveOrder = mock(TransactionExecution.class);
+        when(saveOrder.getTransactionName()).thenReturn("productstore.service.impl.OrderServiceImpl.saveOrder");
+
+        transactionMetrics.afterCommit(saveOrder, null);
+        transactionMetrics.afterCommit(saveOrder, null);
+        transactionMetrics.afterCommit(saveOrder, new RuntimeException("serialization failure"));
+        transactionMetrics.afterRollback(saveOrder, null);
+
+        assertEquals(2, count("OrderServiceImpl.saveOrder", "commit"));
+        assertEquals(1, count("OrderServiceImpl.saveOrder", "commit_failure"));
+        assertEquals(1, count("OrderServiceImpl.saveOrder", "rollback"));
+    }
+
+    @Test
+    public void testCountsUnnamedTransactions() {
+        transactionMetrics.afterCommit(mock(TransactionExecution.class), null);
+
+        assertEquals(1, count("unnamed", "commit"));
+    }
+}
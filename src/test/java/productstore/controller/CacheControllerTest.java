@@ -0,0 +1,45 @@
+package productstore.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.service.cache.ProductCache;
+import productstore.service.cache.SingleFlight;
+
+import java.time.Duration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class CacheControllerTest {
+
+    private MockMvc mockMvc;
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    public void setUp() {
+        productCache = new ProductCache(100, Duration.ofMinutes(5), new SingleFlight(new SimpleMeterRegistry()));
+        mockMvc = MockMvcBuilders.standaloneSetup(new CacheController(productCache)).build();
+    }
+
+    @Test
+    public void testGetProductCacheStats() throws Exception {
+        ProductOutputDTO product = new ProductOutputDTO(1L, "Test Product", 1000);
+        productCache.get(1L, id -> product);
+        productCache.get(1L, id -> product);
+
+        mockMvc.perform(get("/api/cache/products"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.hitCount").value(1))
+                .andExpect(jsonPath("$.missCount").value(1))
+                .andExpect(jsonPath("$.evictionCount").value(0))
+                .andExpect(jsonPath("$.hitRate").value(0.5));
+    }
+}
@@ -0,0 +1,60 @@
+package productstore.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import productstore.controller.dto.input.ProductInputDTO;
+import productstore.controller.dto.output.ProductOutputDTO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CentsJsonTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private String price(long cents) throws Exception {
+        String json = objectMapper.writeValueAsString(new ProductOutputDTO(1L, "Product", cents));
+        return json.substring(json.indexOf("\"price\":") + 8, json.indexOf('}'));
+    }
+
+    private long read(String price) throws Exception {
+        return objectMapper.readValue("{\"name\":\"Product\",\"price\":" + price + "}", ProductInputDTO.class).getPrice();
+    }
+
+    @Test
+    public void testWritesTwoDecimals() throws Exception {
+        assertEquals("12.50", price(1250));
+        assertEquals("0.05", price(5));
+        assertEquals("0.00", price(0));
+        assertEquals("-3.07", price(-307));
+        assertEquals("92233720368547758.07", price(Long.MAX_VALUE));
+        assertEquals("-92233720368547758.08", price(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testReadsWithoutRounding() throws Exception {
+        assertEquals(1999, read("19.99"));
+        assertEquals(29, read("0.29"));
+        assertEquals(1200, read("12"));
+        assertEquals(1250, read("12.500"));
+        assertEquals(Long.MIN_VALUE, read("-92233720368547758.08"));
+    }
+
+    @Test
+    public void testRejectsFractionsOfACent() {
+        assertThrows(InvalidFormatException.class, () -> read("10.005"));
+        assertThrows(InvalidFormatException.class, () -> read("92233720368547758.08"));
+        assertThrows(MismatchedInputException.class, () -> read("\"10.00\""));
+    }
+
+    @Test
+    public void testRoundTripsThroughReplay() throws Exception {
+        ProductOutputDTO product = new ProductOutputDTO(1L, "Product", 1999);
+
+        ProductOutputDTO replayed = objectMapper.readValue(objectMapper.writeValueAsString(product), ProductOutputDTO.class);
+
+        assertEquals(1999, replayed.getPrice());
+    }
+}
@@ -0,0 +1,103 @@
+package productstore.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import productstore.controller.dto.output.OrderItemOutputDTO;
+import productstore.controller.dto.output.OrderOutputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
+import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.controller.dto.output.UserOutputDTO;
+import productstore.service.FieldSet;
+import productstore.service.OrderIngestService;
+import productstore.service.OrderService;
+import productstore.service.ProductService;
+import productstore.service.idempotency.IdempotencyStore;
+import productstore.service.exception.GlobalExceptionHandler;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class FieldSelectionAdviceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderIngestService orderIngestService;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService, idempotencyStore),
+                        new OrderController(orderService, orderIngestService, idempotencyStore))
+                .setControllerAdvice(new FieldSelectionAdvice(), new GlobalExceptionHandler())
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(FieldFilter.register(new ObjectMapper())))
+                .build();
+    }
+
+    @Test
+    public void shouldWriteOnlySelectedProductFields() throws Exception {
+        FieldSet fields = FieldSet.parse("id,name", ProductOutputDTO.FIELDS);
+        when(productService.getAllProducts(null, 20, fields))
+                .thenReturn(new PageOutputDTO<>(List.of(new ProductOutputDTO(1L, "Test Product", 10000)), null));
+
+        mockMvc.perform(get("/api/products").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.content[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.content[0].price").doesNotExist());
+    }
+
+    @Test
+    public void shouldWriteProductInFullWithoutFields() throws Exception {
+        when(productService.getProductById(1L)).thenReturn(new ProductOutputDTO(1L, "Test Product", 10000));
+
+        mockMvc.perform(get("/api/products/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(100.0));
+    }
+
+    @Test
+    public void shouldFilterOnlyTheSelectedTypeAndKeepEmbeddedUser() throws Exception {
+        OrderOutputDTO order = new OrderOutputDTO(1L, new UserOutputDTO(2L, "Alice", "alice@example.com"),
+                List.of(new OrderItemOutputDTO(3L, "Test Product", 10000, 1)));
+        when(orderService.getOrderById(1L, null)).thenReturn(order);
+
+        mockMvc.perform(get("/api/orders/{id}", 1L).param("fields", "id,user"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.user.email").value("alice@example.com"))
+                .andExpect(jsonPath("$.products").doesNotExist());
+    }
+
+    @Test
+    public void shouldRejectUnknownField() throws Exception {
+        mockMvc.perform(get("/api/products").param("fields", "id,weight"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).getAllProducts(any(), anyInt(), any());
+    }
+}
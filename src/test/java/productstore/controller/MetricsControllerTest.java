@@ -0,0 +1,46 @@
+package productstore.controller;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import productstore.config.RequestMetricsInterceptor;
+import productstore.service.cache.ProductCache;
+import productstore.service.cache.SingleFlight;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class MetricsControllerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        mockMvc = MockMvcBuilders.standaloneSetup(new MetricsController(meterRegistry),
+                        new CacheController(new ProductCache(100, Duration.ofMinutes(5), new SingleFlight(meterRegistry))))
+                .addInterceptors(new RequestMetricsInterceptor(meterRegistry))
+                .build();
+    }
+
+    @Test
+    public void testScrapeIncludesRequestLatencyHistogram() throws Exception {
+        mockMvc.perform(get("/api/cache/products")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/cache/products")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MetricsController.CONTENT_TYPE))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains(
+                "http_server_requests_seconds_count{method=\"GET\",status=\"2xx\",uri=\"/api/cache/products\"} 2"));
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"));
+    }
+}
@@ -9,22 +9,37 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 import productstore.controller.dto.input.OrderInputDTO;
 import productstore.controller.dto.input.ProductIdsDTO;
+import productstore.controller.dto.output.OrderExportDTO;
+import productstore.controller.dto.output.OrderExportItemDTO;
+import productstore.controller.dto.output.OrderItemOutputDTO;
 import productstore.controller.dto.output.OrderOutputDTO;
-import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.UserOutputDTO;
+import productstore.service.FieldSet;
+import productstore.service.OrderIngestService;
 import productstore.service.OrderService;
+import productstore.service.idempotency.IdempotencyStore;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -32,6 +47,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @ExtendWith(MockitoExtension.class)
 @ContextConfiguration(classes = {OrderController.class})
@@ -40,6 +56,12 @@ public class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderIngestService orderIngestService;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -57,8 +79,8 @@ public class OrderControllerTest {
 
         UserOutputDTO user = new UserOutputDTO(1L, "Test User", "user@example.com");
 
-        ProductOutputDTO product1 = new ProductOutputDTO(100L, "Product1", 10.0);
-        ProductOutputDTO product2 = new ProductOutputDTO(101L, "Product2", 15.0);
+        OrderItemOutputDTO product1 = new OrderItemOutputDTO(100L, "Product1", 1000, 1);
+        OrderItemOutputDTO product2 = new OrderItemOutputDTO(101L, "Product2", 1500, 2);
 
         orderInputDTO = new OrderInputDTO();
         orderInputDTO.setUserId(1L);
@@ -74,9 +96,12 @@ public class OrderControllerTest {
     public void testSaveOrder() throws Exception {
         when(orderService.saveOrder(any(OrderInputDTO.class))).thenReturn(orderOutputDTO);
 
-        mockMvc.perform(post("/api/orders")
+        MvcResult mvcResult = mockMvc.perform(post("/api/orders")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(orderInputDTO)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(orderOutputDTO.getId()))
@@ -84,18 +109,100 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.products.length()").value(Optional.of(orderOutputDTO.getProducts().size()).orElse(0)));
     }
 
+    @Test
+    public void testSaveOrder_Ingested() throws Exception {
+        when(orderIngestService.isEnabled()).thenReturn(true);
+        when(orderIngestService.submit(any(OrderInputDTO.class))).thenReturn(CompletableFuture.completedFuture(7L));
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderInputDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7L));
+        verify(orderService, never()).saveOrder(any());
+    }
+
+    @Test
+    public void testSaveOrder_IdempotencyKey() throws Exception {
+        when(idempotencyStore.execute(eq("orders"), eq("key-1"), any(OrderInputDTO.class), eq(OrderOutputDTO.class), any()))
+                .thenReturn(orderOutputDTO);
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderInputDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(orderOutputDTO.getId()));
+        verify(idempotencyStore, never()).executeAsync(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testSaveOrder_IngestedWithIdempotencyKey() throws Exception {
+        when(orderIngestService.isEnabled()).thenReturn(true);
+        when(idempotencyStore.executeAsync(eq("orders"), eq("key-1"), any(OrderInputDTO.class), eq(OrderOutputDTO.class), any()))
+                .thenReturn(CompletableFuture.completedFuture(orderOutputDTO));
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderInputDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(orderOutputDTO.getId()));
+        verify(orderService, never()).saveOrder(any());
+    }
+
     @Test
     public void testGetAllOrders() throws Exception {
         List<OrderOutputDTO> orderOutputDTOList = Arrays.asList(orderOutputDTO);
 
-        when(orderService.getAllOrders()).thenReturn(orderOutputDTOList);
+        when(orderService.getAllOrders(10L, 50, FieldSet.ALL)).thenReturn(new PageOutputDTO<>(orderOutputDTOList, null));
 
         mockMvc.perform(get("/api/orders")
+                        .param("after", "10")
+                        .param("limit", "50")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.length()").value(Optional.of(orderOutputDTOList.size()).orElse(0)))
-                .andExpect(jsonPath("$[0].id").value(orderOutputDTO.getId()));
+                .andExpect(jsonPath("$.content.length()").value(Optional.of(orderOutputDTOList.size()).orElse(0)))
+                .andExpect(jsonPath("$.content[0].id").value(orderOutputDTO.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void testExportOrders() throws Exception {
+        OrderExportDTO first = new OrderExportDTO(1L, 1L);
+        first.setItems(Arrays.asList(new OrderExportItemDTO(100L, 1), new OrderExportItemDTO(101L, 2)));
+        OrderExportDTO second = new OrderExportDTO(2L, 1L);
+        doAnswer(invocation -> {
+            Consumer<OrderExportDTO> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(orderService).exportOrders(any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"id\":1,\"userId\":1,\"items\":[{\"productId\":100,\"quantity\":1},"
+                                + "{\"productId\":101,\"quantity\":2}]}\n" +
+                        "{\"id\":2,\"userId\":1,\"items\":[]}\n"));
     }
 
     @Test
@@ -106,7 +213,8 @@ public class OrderControllerTest {
 
     @Test
     public void testGetOrderById() throws Exception {
-        when(orderService.getOrderById(anyLong())).thenReturn(orderOutputDTO);
+        when(orderService.getOrderVersionTag(1L)).thenReturn("1-1-0");
+        when(orderService.getOrderById(1L, "1-1-0")).thenReturn(orderOutputDTO);
 
         mockMvc.perform(get("/api/orders/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -118,7 +226,7 @@ public class OrderControllerTest {
 
     @Test
     public void testUpdateOrderById() throws Exception {
-        when(orderService.updateOrderById(anyLong(), any(ProductIdsDTO.class))).thenReturn(orderOutputDTO);
+        when(orderService.updateOrderById(anyLong(), any(ProductIdsDTO.class), isNull())).thenReturn(orderOutputDTO);
 
         mockMvc.perform(put("/api/orders/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
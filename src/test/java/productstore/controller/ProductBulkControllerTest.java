@@ -0,0 +1,77 @@
+package productstore.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import productstore.controller.dto.input.ProductBulkInputDTO;
+import productstore.controller.dto.output.ProductBulkResultDTO;
+import productstore.controller.dto.output.ProductBulkResultDTO.Status;
+import productstore.service.ProductBulkService;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductBulkControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ProductBulkService productBulkService;
+
+    @InjectMocks
+    private ProductBulkController productBulkController;
+
+    private final List<ProductBulkInputDTO> received = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(productBulkController).build();
+        when(productBulkService.saveProducts(any())).thenAnswer(invocation -> {
+            Iterator<ProductBulkInputDTO> products = invocation.getArgument(0);
+            products.forEachRemaining(received::add);
+            return List.of(new ProductBulkResultDTO(0, 1L, Status.CREATED), new ProductBulkResultDTO(1, 2L, Status.UPDATED));
+        });
+    }
+
+    @Test
+    public void testSaveProductsFromJsonArray() throws Exception {
+        mockMvc.perform(post("/api/products/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"First\",\"price\":10.0},{\"id\":2,\"name\":\"Second\",\"price\":20.0}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].id").value(2));
+
+        assertEquals(2, received.size());
+        assertEquals(2L, received.get(1).getId());
+    }
+
+    @Test
+    public void testSaveProductsFromNdjson() throws Exception {
+        mockMvc.perform(post("/api/products/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"First\",\"price\":10.0}\n{\"id\":2,\"name\":\"Second\",\"price\":20.0}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].status").value("UPDATED"));
+
+        assertEquals(2, received.size());
+        assertEquals("First", received.get(0).getName());
+    }
+}
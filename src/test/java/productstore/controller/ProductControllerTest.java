@@ -12,14 +12,23 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 import productstore.controller.dto.input.ProductInputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.service.FieldSet;
 import productstore.service.ProductService;
+import productstore.service.idempotency.IdempotencyStore;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +42,9 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
     @InjectMocks
     private ProductController productController;
 
@@ -47,28 +59,29 @@ public class ProductControllerTest {
 
         productInputDTO = new ProductInputDTO();
         productInputDTO.setName("Test Product");
-        productInputDTO.setPrice(100.0);
+        productInputDTO.setPrice(10000);
 
         productOutputDTO = new ProductOutputDTO();
         productOutputDTO.setId(1L);
         productOutputDTO.setName("Test Product");
-        productOutputDTO.setPrice(100.0);
+        productOutputDTO.setPrice(10000);
     }
 
     @Test
     public void testGetAllProducts() throws Exception {
         List<ProductOutputDTO> productList = Collections.singletonList(productOutputDTO);
 
-        when(productService.getAllProducts()).thenReturn(productList);
+        when(productService.getAllProducts(null, 20, FieldSet.ALL)).thenReturn(new PageOutputDTO<>(productList, 1L));
 
         mockMvc.perform(get("/api/products")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()").value(productList.size()))
-                .andExpect(jsonPath("$[0].id").value(productOutputDTO.getId()))
-                .andExpect(jsonPath("$[0].name").value(productOutputDTO.getName()))
-                .andExpect(jsonPath("$[0].price").value(productOutputDTO.getPrice()));
+                .andExpect(jsonPath("$.content.size()").value(productList.size()))
+                .andExpect(jsonPath("$.content[0].id").value(productOutputDTO.getId()))
+                .andExpect(jsonPath("$.content[0].name").value(productOutputDTO.getName()))
+                .andExpect(jsonPath("$.content[0].price").value(100.0))
+                .andExpect(jsonPath("$.nextCursor").value(1L));
     }
 
     @Test
@@ -83,7 +96,41 @@ public class ProductControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(productOutputDTO.getId()))
                 .andExpect(jsonPath("$.name").value(productOutputDTO.getName()))
-                .andExpect(jsonPath("$.price").value(productOutputDTO.getPrice()));
+                .andExpect(jsonPath("$.price").value(100.0));
+    }
+
+    @Test
+    public void testSaveProduct_ReadsPriceExactly() throws Exception {
+        when(productService.saveProduct(any(ProductInputDTO.class))).thenReturn(productOutputDTO);
+
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Product\",\"price\":0.29}"))
+                .andExpect(status().isCreated());
+        verify(productService).saveProduct(argThat(product -> product.getPrice() == 29));
+    }
+
+    @Test
+    public void testSaveProduct_RejectsFractionsOfACent() throws Exception {
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Product\",\"price\":10.005}"))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).saveProduct(any());
+    }
+
+    @Test
+    public void testSaveProduct_IdempotencyKey() throws Exception {
+        when(idempotencyStore.execute(eq("products"), eq("key-1"), any(ProductInputDTO.class), eq(ProductOutputDTO.class), any()))
+                .thenReturn(productOutputDTO);
+
+        mockMvc.perform(post("/api/products")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productInputDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(productOutputDTO.getId()));
+        verify(productService, never()).saveProduct(any());
     }
 
     @Test
@@ -96,7 +143,19 @@ public class ProductControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(productOutputDTO.getId()))
                 .andExpect(jsonPath("$.name").value(productOutputDTO.getName()))
-                .andExpect(jsonPath("$.price").value(productOutputDTO.getPrice()));
+                .andExpect(jsonPath("$.price").value(100.0));
+    }
+
+    @Test
+    public void testGetProductById_NotModified() throws Exception {
+        productOutputDTO.setVersion(3);
+        when(productService.getProductById(anyLong())).thenReturn(productOutputDTO);
+
+        mockMvc.perform(get("/api/products/{id}", 1L)
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
     }
 
     @Test
@@ -107,7 +166,7 @@ public class ProductControllerTest {
 
     @Test
     public void testUpdateProductById() throws Exception {
-        when(productService.updateProductById(anyLong(), any(ProductInputDTO.class))).thenReturn(productOutputDTO);
+        when(productService.updateProductById(anyLong(), any(ProductInputDTO.class), isNull())).thenReturn(productOutputDTO);
 
         mockMvc.perform(put("/api/products/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -116,6 +175,19 @@ public class ProductControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(productOutputDTO.getId()))
                 .andExpect(jsonPath("$.name").value(productOutputDTO.getName()))
-                .andExpect(jsonPath("$.price").value(productOutputDTO.getPrice()));
+                .andExpect(jsonPath("$.price").value(100.0));
+    }
+
+    @Test
+    public void testUpdateProductById_IfMatch() throws Exception {
+        productOutputDTO.setVersion(4);
+        when(productService.updateProductById(anyLong(), any(ProductInputDTO.class), eq(Set.of("3")))).thenReturn(productOutputDTO);
+
+        mockMvc.perform(put("/api/products/{id}", 1L)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productInputDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("ETag", "\"4\""));
     }
 }
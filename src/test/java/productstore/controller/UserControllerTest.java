@@ -14,7 +14,11 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 import productstore.controller.dto.input.UserChangeEmailDTO;
 import productstore.controller.dto.input.UserInputDTO;
+import productstore.controller.dto.output.OrderOutputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.UserOutputDTO;
+import productstore.service.FieldSet;
+import productstore.service.OrderService;
 import productstore.service.UserService;
 
 import java.util.Arrays;
@@ -22,6 +26,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -34,6 +39,9 @@ public class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private OrderService orderService;
+
     @InjectMocks
     private UserController userController;
 
@@ -60,32 +68,66 @@ public class UserControllerTest {
         userOutputDTO.setId(1L);
         userOutputDTO.setName("Test User");
         userOutputDTO.setEmail("test@example.com");
+        userOutputDTO.setOrderCount(3L);
     }
 
     @Test
     public void testGetAllUsers() throws Exception {
         List<UserOutputDTO> users = Arrays.asList(userOutputDTO);
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getAllUsers(null, 20, FieldSet.ALL)).thenReturn(new PageOutputDTO<>(users, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(users.size()))
+                .andExpect(jsonPath("$.content[0].id").value(userOutputDTO.getId()))
+                .andExpect(jsonPath("$.content[0].name").value(userOutputDTO.getName()))
+                .andExpect(jsonPath("$.content[0].email").value(userOutputDTO.getEmail()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void testGetAllUsersAfterCursor() throws Exception {
+        List<UserOutputDTO> users = Arrays.asList(userOutputDTO);
+        when(userService.getAllUsers(5L, 1, FieldSet.ALL)).thenReturn(new PageOutputDTO<>(users, 1L));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/users")
+                        .param("after", "5")
+                        .param("limit", "1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(users.size()))
-                .andExpect(jsonPath("$[0].id").value(userOutputDTO.getId()))
-                .andExpect(jsonPath("$[0].name").value(userOutputDTO.getName()))
-                .andExpect(jsonPath("$[0].email").value(userOutputDTO.getEmail()));
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(1L));
     }
 
     @Test
     public void testGetUserById() throws Exception {
-        when(userService.getUserById(anyLong())).thenReturn(userOutputDTO);
+        when(userService.getUserById(anyLong(), eq(FieldSet.ALL))).thenReturn(userOutputDTO);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/users/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(userOutputDTO.getId()))
                 .andExpect(jsonPath("$.name").value(userOutputDTO.getName()))
-                .andExpect(jsonPath("$.email").value(userOutputDTO.getEmail()));
+                .andExpect(jsonPath("$.email").value(userOutputDTO.getEmail()))
+                .andExpect(jsonPath("$.orderCount").value(3))
+                .andExpect(jsonPath("$.orderOutputDTOS").doesNotExist());
+    }
+
+    @Test
+    public void testGetUserOrders() throws Exception {
+        OrderOutputDTO orderOutputDTO = new OrderOutputDTO();
+        orderOutputDTO.setId(7L);
+        when(orderService.getOrdersByUserId(1L, 5L, 1)).thenReturn(new PageOutputDTO<>(List.of(orderOutputDTO), 7L));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/{id}/orders", 1L)
+                        .param("after", "5")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(7L))
+                .andExpect(jsonPath("$.nextCursor").value(7L));
     }
 
     @Test
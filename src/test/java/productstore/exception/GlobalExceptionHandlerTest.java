@@ -8,23 +8,37 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import productstore.controller.OrderController;
 import productstore.controller.ProductController;
 import productstore.controller.UserController;
+import productstore.service.FieldSet;
+import productstore.service.OrderIngestService;
 import productstore.service.OrderService;
 import productstore.service.ProductService;
 import productstore.service.UserService;
+import productstore.service.idempotency.IdempotencyStore;
 import productstore.service.exception.GlobalExceptionHandler;
+import productstore.service.exception.IdempotencyConflictException;
+import productstore.service.exception.IdempotencyKeyReusedException;
 import productstore.service.exception.OrderNotFoundException;
+import productstore.service.exception.OrderQueueFullException;
 import productstore.service.exception.ProductNotFoundException;
 import productstore.service.exception.UserNotFoundException;
 
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,20 +55,24 @@ public class GlobalExceptionHandlerTest {
     private OrderService orderService;
     @Mock
     private ProductService productService;
+    @Mock
+    private OrderIngestService orderIngestService;
+    @Mock
+    private IdempotencyStore idempotencyStore;
 
     @BeforeEach
     public void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(
-                        new UserController(userService),
-                        new OrderController(orderService),
-                        new ProductController(productService))
+                        new UserController(userService, orderService),
+                        new OrderController(orderService, orderIngestService, idempotencyStore),
+                        new ProductController(productService, idempotencyStore))
                 .setControllerAdvice(globalExceptionHandler)
                 .build();
     }
 
     @Test
     public void testHandleUserNotFoundException() throws Exception {
-        when(userService.getUserById(anyLong())).thenThrow(new UserNotFoundException("User with id 999 not found."));
+        when(userService.getUserById(anyLong(), eq(FieldSet.ALL))).thenThrow(new UserNotFoundException("User with id 999 not found."));
 
         mockMvc.perform(get("/api/users/999"))
                 .andExpect(status().isNotFound())
@@ -63,13 +81,56 @@ public class GlobalExceptionHandlerTest {
 
     @Test
     public void testHandleOrderNotFoundException() throws Exception {
-        when(orderService.getOrderById(anyLong())).thenThrow(new OrderNotFoundException("Order with id 999 not found."));
+        when(orderService.getOrderVersionTag(anyLong())).thenThrow(new OrderNotFoundException("Order with id 999 not found."));
 
         mockMvc.perform(get("/api/orders/999"))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string("Order with id 999 not found."));
     }
 
+    @Test
+    public void testHandleOrderQueueFullException() throws Exception {
+        when(orderIngestService.isEnabled()).thenReturn(true);
+        when(orderIngestService.submit(any())).thenReturn(CompletableFuture.failedFuture(
+                new OrderQueueFullException("Too many orders in flight, retry later.")));
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":1,\"productIds\":[1]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().string("Too many orders in flight, retry later."));
+    }
+
+    @Test
+    public void testHandleIdempotencyConflictException() throws Exception {
+        when(idempotencyStore.execute(eq("products"), eq("key-1"), any(), any(), any()))
+                .thenThrow(new IdempotencyConflictException("A request with this Idempotency-Key is still in progress, retry later."));
+
+        mockMvc.perform(post("/api/products")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Product\",\"price\":10.0}"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("A request with this Idempotency-Key is still in progress, retry later."));
+    }
+
+    @Test
+    public void testHandleIdempotencyKeyReusedException() throws Exception {
+        when(idempotencyStore.execute(eq("products"), eq("key-1"), any(), any(), any()))
+                .thenThrow(new IdempotencyKeyReusedException("This Idempotency-Key was already used with a different request."));
+
+        mockMvc.perform(post("/api/products")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Product\",\"price\":10.0}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     public void testHandleProductNotFoundException() throws Exception {
         when(productService.getProductById(anyLong())).thenThrow(new ProductNotFoundException("Product with id 999 not found."));
@@ -9,7 +9,6 @@ import org.mockito.MockitoAnnotations;
 import productstore.controller.dto.input.OrderInputDTO;
 import productstore.controller.dto.output.OrderOutputDTO;
 import productstore.controller.mapper.OrderMapperImpl;
-import productstore.controller.mapper.ProductMapper;
 import productstore.controller.mapper.UserMapper;
 import productstore.model.Order;
 import productstore.model.Product;
@@ -32,7 +31,6 @@ class OrderMapperTest {
     @Mock
     private ProductService productService;
 
-    private final ProductMapper productMapper = Mappers.getMapper(ProductMapper.class);
     private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
 
     @InjectMocks
@@ -45,10 +43,6 @@ class OrderMapperTest {
         orderMapper.setUserService(userService);
         orderMapper.setProductService(productService);
 
-        Field productMapperField = orderMapper.getClass().getDeclaredField("productMapper");
-        productMapperField.setAccessible(true);
-        productMapperField.set(orderMapper, productMapper);
-
         Field userMapperField = orderMapper.getClass().getDeclaredField("userMapper");
         userMapperField.setAccessible(true);
         userMapperField.set(orderMapper, userMapper);
@@ -75,10 +69,29 @@ class OrderMapperTest {
         assertEquals(1L, dto.getId());
         assertNotNull(dto.getUser());
         assertEquals(1L, dto.getUser().getId());
+        assertNull(dto.getUser().getOrderCount());
         assertEquals(1, dto.getProducts().size());
         assertEquals(1L, dto.getProducts().get(0).getId());
     }
 
+    @Test
+    void shouldTotalItemPricesInCents() {
+        Product product1 = new Product("Test Product", 10);
+        product1.setId(1L);
+        Product product2 = new Product("Other Product", 20);
+        product2.setId(2L);
+
+        Order order = new Order();
+        order.setId(1L);
+        order.setUser(new User());
+        order.setOrderProducts(Arrays.asList(product1, product2, product2));
+
+        OrderOutputDTO dto = orderMapper.toDTO(order);
+
+        assertEquals(50L, dto.getTotal());
+        assertEquals(20L, dto.getProducts().get(1).getPrice());
+    }
+
     @Test
     void shouldMapOrderInputDTOToEntity() {
         OrderInputDTO inputDTO = new OrderInputDTO();
@@ -86,12 +99,13 @@ class OrderMapperTest {
         inputDTO.setProductIds(Arrays.asList(1L, 2L));
 
         User user = new User();
-        when(userService.findById(1L)).thenReturn(user);
+        when(userService.getReferenceById(1L)).thenReturn(user);
 
         Product product1 = new Product();
+        product1.setId(1L);
         Product product2 = new Product();
-        when(productService.findById(1L)).thenReturn(product1);
-        when(productService.findById(2L)).thenReturn(product2);
+        product2.setId(2L);
+        when(productService.findAllByIds(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(product1, product2));
 
         Order order = orderMapper.toEntity(inputDTO);
 
@@ -102,6 +116,29 @@ class OrderMapperTest {
         assertTrue(order.getOrderProducts().contains(product2));
     }
 
+    @Test
+    void shouldMergeRepeatedProductIdsIntoQuantities() {
+        OrderInputDTO inputDTO = new OrderInputDTO();
+        inputDTO.setUserId(1L);
+        inputDTO.setProductIds(Arrays.asList(1L, 2L, 2L));
+
+        when(userService.getReferenceById(1L)).thenReturn(new User());
+
+        Product product1 = new Product();
+        product1.setId(1L);
+        Product product2 = new Product();
+        product2.setId(2L);
+        when(productService.findAllByIds(Arrays.asList(1L, 2L, 2L)))
+                .thenReturn(Arrays.asList(product1, product2, product2));
+
+        OrderOutputDTO dto = orderMapper.toDTO(orderMapper.toEntity(inputDTO));
+
+        assertEquals(2, dto.getProducts().size());
+        assertEquals(2L, dto.getProducts().get(1).getId());
+        assertEquals(1, dto.getProducts().get(0).getQuantity());
+        assertEquals(2, dto.getProducts().get(1).getQuantity());
+    }
+
     @Test
     void shouldMapMultipleOrdersToDTOs() {
         User user1 = new User();
@@ -27,14 +27,14 @@ class ProductMapperTest {
         Product product = new Product();
         product.setId(1L);
         product.setName("Test Product");
-        product.setPrice(99.99);
+        product.setPriceCents(9999);
 
         ProductOutputDTO dto = productMapper.toDTO(product);
 
         assertNotNull(dto);
         assertEquals(1L, dto.getId());
         assertEquals("Test Product", dto.getName());
-        assertEquals(99.99, dto.getPrice());
+        assertEquals(9999, dto.getPrice());
     }
 
     @Test
@@ -42,12 +42,12 @@ class ProductMapperTest {
         Product product1 = new Product();
         product1.setId(1L);
         product1.setName("Product 1");
-        product1.setPrice(50.0);
+        product1.setPriceCents(5000);
 
         Product product2 = new Product();
         product2.setId(2L);
         product2.setName("Product 2");
-        product2.setPrice(150.0);
+        product2.setPriceCents(15000);
 
         List<Product> products = Arrays.asList(product1, product2);
 
@@ -58,24 +58,24 @@ class ProductMapperTest {
 
         assertEquals(1L, dtos.get(0).getId());
         assertEquals("Product 1", dtos.get(0).getName());
-        assertEquals(50.0, dtos.get(0).getPrice());
+        assertEquals(5000, dtos.get(0).getPrice());
 
         assertEquals(2L, dtos.get(1).getId());
         assertEquals("Product 2", dtos.get(1).getName());
-        assertEquals(150.0, dtos.get(1).getPrice());
+        assertEquals(15000, dtos.get(1).getPrice());
     }
 
     @Test
     void shouldMapProductInputDTOToEntity() {
         ProductInputDTO inputDTO = new ProductInputDTO();
         inputDTO.setName("New Product");
-        inputDTO.setPrice(120.0);
+        inputDTO.setPrice(12000);
 
         Product product = productMapper.toEntity(inputDTO);
 
         assertNotNull(product);
         assertNull(product.getId());
         assertEquals("New Product", product.getName());
-        assertEquals(120.0, product.getPrice());
+        assertEquals(12000, product.getPriceCents());
     }
 }
@@ -0,0 +1,87 @@
+package productstore.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import productstore.config.TestDataSourceConfig;
+import productstore.repository.IdempotencyKeyRepository.Entry;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, IdempotencyKeyRepository.class})
+@ActiveProfiles("test")
+public class IdempotencyKeyRepositoryTest {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(1);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(dataSource).update("DELETE FROM idempotency_keys");
+    }
+
+    @Test
+    void shouldClaimKeyOnce() {
+        assertThat(idempotencyKeyRepository.claim("orders", "key-1", hash('a'), TIMEOUT)).isEmpty();
+
+        Optional<Entry> pending = idempotencyKeyRepository.claim("orders", "key-1", hash('a'), TIMEOUT);
+
+        assertThat(pending).isPresent();
+        assertThat(pending.get().getResponse()).isNull();
+        assertThat(idempotencyKeyRepository.claim("products", "key-1", hash('a'), TIMEOUT)).isEmpty();
+    }
+
+    @Test
+    void shouldReturnCompletedResponse() {
+        idempotencyKeyRepository.claim("orders", "key-1", hash('a'), TIMEOUT);
+        idempotencyKeyRepository.complete("orders", "key-1", "{\"id\":1}", TIMEOUT);
+
+        Entry entry = idempotencyKeyRepository.claim("orders", "key-1", hash('b'), TIMEOUT).orElseThrow();
+
+        assertThat(entry.getRequestHash()).isEqualTo(hash('a'));
+        assertThat(entry.getResponse()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void shouldReleasePendingKeyButNotCompletedOne() {
+        idempotencyKeyRepository.claim("orders", "key-1", hash('a'), TIMEOUT);
+        idempotencyKeyRepository.claim("orders", "key-2", hash('a'), TIMEOUT);
+        idempotencyKeyRepository.complete("orders", "key-2", "{\"id\":2}", TIMEOUT);
+
+        idempotencyKeyRepository.release("orders", "key-1");
+        idempotencyKeyRepository.release("orders", "key-2");
+
+        assertThat(idempotencyKeyRepository.claim("orders", "key-1", hash('a'), TIMEOUT)).isEmpty();
+        assertThat(idempotencyKeyRepository.claim("orders", "key-2", hash('a'), TIMEOUT)).isPresent();
+    }
+
+    @Test
+    void shouldTakeOverAndPurgeExpiredKeys() {
+        idempotencyKeyRepository.claim("orders", "key-1", hash('a'), Duration.ZERO);
+        idempotencyKeyRepository.claim("orders", "key-2", hash('a'), Duration.ZERO);
+        idempotencyKeyRepository.complete("orders", "key-2", "{\"id\":2}", Duration.ofMillis(-1));
+
+        assertThat(idempotencyKeyRepository.claim("orders", "key-1", hash('b'), TIMEOUT)).isEmpty();
+        assertThat(idempotencyKeyRepository.deleteExpired()).isEqualTo(1);
+        assertThat(idempotencyKeyRepository.claim("orders", "key-2", hash('b'), TIMEOUT)).isEmpty();
+    }
+
+    private static String hash(char c) {
+        return String.valueOf(c).repeat(64);
+    }
+}
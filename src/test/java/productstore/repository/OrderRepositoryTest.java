@@ -1,15 +1,19 @@
 package productstore.repository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
 import productstore.config.TestDataSourceConfig;
 import productstore.model.Order;
+import productstore.model.OrderItem;
 import productstore.model.Product;
 import productstore.model.User;
 
@@ -19,6 +23,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 
 @ExtendWith(SpringExtension.class)
@@ -36,6 +41,9 @@ public class OrderRepositoryTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         orderRepository.deleteAll();
@@ -48,7 +56,7 @@ public class OrderRepositoryTest {
         User user = new User("Test User", "test@example.com");
         userRepository.save(user);
 
-        Product product = new Product("Test Product", 100.0);
+        Product product = new Product("Test Product", 10000);
         productRepository.save(product);
 
         Order order = new Order(user);
@@ -62,7 +70,7 @@ public class OrderRepositoryTest {
 
     @Test
     void shouldDeleteOrderAndRetainProducts() {
-        Product product = new Product("Test Product", 100.0);
+        Product product = new Product("Test Product", 10000);
         productRepository.save(product);
 
         User user = new User("Test User", "test@example.com");
@@ -83,8 +91,8 @@ public class OrderRepositoryTest {
         User user = new User("Test User", "test@example.com");
         userRepository.save(user);
 
-        Product product1 = new Product("Test Product 1", 50.0);
-        Product product2 = new Product("Test Product 2", 150.0);
+        Product product1 = new Product("Test Product 1", 5000);
+        Product product2 = new Product("Test Product 2", 15000);
         productRepository.save(product1);
         productRepository.save(product2);
 
@@ -104,7 +112,7 @@ public class OrderRepositoryTest {
         User user = new User("Test User", "test@example.com");
         userRepository.save(user);
 
-        Product product = new Product("Test Product", 100.0);
+        Product product = new Product("Test Product", 10000);
         productRepository.save(product);
 
         Order order = new Order(user);
@@ -126,8 +134,8 @@ public class OrderRepositoryTest {
         User user2 = new User("User2", "user2@example.com");
         userRepository.saveAll(Arrays.asList(user1, user2));
 
-        Product product1 = new Product("Product1", 100.0);
-        Product product2 = new Product("Product2", 200.0);
+        Product product1 = new Product("Product1", 10000);
+        Product product2 = new Product("Product2", 20000);
         productRepository.saveAll(Arrays.asList(product1, product2));
 
         Order order1 = new Order(user1);
@@ -144,4 +152,54 @@ public class OrderRepositoryTest {
         assertThat(allOrders.get(0).getUser()).isIn(user1, user2);
         assertThat(allOrders.get(1).getOrderProducts()).containsAnyOf(product1, product2);
     }
+
+    @Test
+    void shouldStoreRepeatedProductsAsQuantities() {
+        User user = userRepository.save(new User("Test User", "test@example.com"));
+        Product product1 = productRepository.save(new Product("Product1", 10000));
+        Product product2 = productRepository.save(new Product("Product2", 20000));
+
+        Order order = new Order(user);
+        order.setOrderProducts(Arrays.asList(product1, product2, product2));
+        order = orderRepository.saveAndFlush(order);
+
+        order.addProducts(Arrays.asList(product1, product2));
+        orderRepository.flush();
+        entityManager.clear();
+
+        Order foundOrder = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(foundOrder.getItems())
+                .extracting(item -> item.getProduct().getId(), OrderItem::getQuantity)
+                .containsExactly(tuple(product1.getId(), 2), tuple(product2.getId(), 3));
+    }
+
+    @Test
+    void shouldPageOrderIdsOfOneUser() {
+        User user = userRepository.save(new User("Test User", "test@example.com"));
+        User other = userRepository.save(new User("Other User", "other@example.com"));
+        Order first = orderRepository.save(new Order(user));
+        orderRepository.save(new Order(other));
+        Order second = orderRepository.save(new Order(user));
+        Order third = orderRepository.save(new Order(user));
+
+        assertThat(orderRepository.findIdsByUserIdAfter(user.getId(), 0L, Limit.of(2)))
+                .containsExactly(first.getId(), second.getId());
+        assertThat(orderRepository.findIdsByUserIdAfter(user.getId(), second.getId(), Limit.of(2)))
+                .containsExactly(third.getId());
+    }
+
+    @Test
+    void shouldReadOrderSummariesWithUser() {
+        User user = userRepository.save(new User("Test User", "test@example.com"));
+        Order first = orderRepository.save(new Order(user));
+        Order second = orderRepository.save(new Order(user));
+        orderRepository.flush();
+        entityManager.clear();
+
+        assertThat(orderRepository.findSummariesByIdIn(List.of(second.getId(), first.getId())))
+                .extracting(row -> row[0], row -> row[1], row -> row[3])
+                .containsExactly(
+                        tuple(first.getId(), user.getId(), "test@example.com"),
+                        tuple(second.getId(), user.getId(), "test@example.com"));
+    }
 }
@@ -1,22 +1,29 @@
 package productstore.repository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
 import productstore.config.TestDataSourceConfig;
+import productstore.controller.dto.output.ProductOutputDTO;
 import productstore.model.Order;
 import productstore.model.Product;
 import productstore.model.User;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 
 @ExtendWith(SpringExtension.class)
@@ -34,6 +41,9 @@ public class ProductRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         orderRepository.deleteAll();
@@ -43,17 +53,17 @@ public class ProductRepositoryTest {
 
     @Test
     void shouldSaveAndRetrieveProduct() {
-        Product product = new Product("Test Product", 100.0);
+        Product product = new Product("Test Product", 10000);
         Product savedProduct = productRepository.save(product);
 
         assertThat(savedProduct.getId()).isNotNull();
         assertThat(savedProduct.getName()).isEqualTo("Test Product");
-        assertThat(savedProduct.getPrice()).isEqualTo(100.0);
+        assertThat(savedProduct.getPriceCents()).isEqualTo(10000);
     }
 
     @Test
     void shouldFindProductById() {
-        Product product = new Product("Test Product", 100.0);
+        Product product = new Product("Test Product", 10000);
         productRepository.save(product);
 
         Product foundProduct = productRepository.findById(product.getId()).orElse(null);
@@ -65,23 +75,23 @@ public class ProductRepositoryTest {
 
     @Test
     void shouldUpdateProductDetails() {
-        Product product = new Product("Old Product", 100.0);
+        Product product = new Product("Old Product", 10000);
         product = productRepository.save(product);
 
         product.setName("Updated Product");
-        product.setPrice(150.0);
+        product.setPriceCents(15000);
         productRepository.save(product);
 
         Product updatedProduct = productRepository.findById(product.getId()).orElse(null);
 
         assertThat(updatedProduct).isNotNull();
         assertThat(updatedProduct.getName()).isEqualTo("Updated Product");
-        assertThat(updatedProduct.getPrice()).isEqualTo(150.0);
+        assertThat(updatedProduct.getPriceCents()).isEqualTo(15000);
     }
 
     @Test
     void shouldDeleteProductAndNotAffectOrders() {
-        Product product = new Product("Test Product", 100.0);
+        Product product = new Product("Test Product", 10000);
         product = productRepository.save(product);
 
         User user = new User("Test User", "test@example.com");
@@ -93,10 +103,11 @@ public class ProductRepositoryTest {
 
         assertThat(order.getOrderProducts()).contains(product);
 
-        List<Order> ordersWithProduct = orderRepository.findAllByOrderProductsContaining(product);
+        Long productId = product.getId();
+        List<Order> ordersWithProduct = ordersContaining(product);
         for (Order o : ordersWithProduct) {
-            o.getOrderProducts().remove(product);
-            orderRepository.save(o);
+            o.getItems().removeIf(item -> item.getProduct().getId().equals(productId));
+            orderRepository.saveAndFlush(o);
         }
 
         productRepository.delete(product);
@@ -111,7 +122,7 @@ public class ProductRepositoryTest {
 
     @Test
     void shouldAddProductToMultipleOrders() {
-        Product product = new Product("Shared Product", 200.0);
+        Product product = new Product("Shared Product", 20000);
         product = productRepository.save(product);
 
         User user1 = new User("User 1", "user1@example.com");
@@ -121,24 +132,22 @@ public class ProductRepositoryTest {
 
         Order order1 = new Order(user1);
         order1.setOrderProducts(Collections.singletonList(product));
-        product.getOrders().add(order1);
         orderRepository.save(order1);
 
         Order order2 = new Order(user2);
         order2.setOrderProducts(Collections.singletonList(product));
-        product.getOrders().add(order2);
         orderRepository.save(order2);
 
         Product foundProduct = productRepository.findById(product.getId()).orElse(null);
 
         assertThat(foundProduct).isNotNull();
-        assertThat(foundProduct.getOrders().size()).isEqualTo(2);
+        assertThat(ordersContaining(foundProduct).size()).isEqualTo(2);
     }
 
     @Test
     void shouldRetrieveAllProductsWithOrders() {
-        Product product1 = new Product("Product 1", 50.0);
-        Product product2 = new Product("Product 2", 100.0);
+        Product product1 = new Product("Product 1", 5000);
+        Product product2 = new Product("Product 2", 10000);
         product1 = productRepository.save(product1);
         product2 = productRepository.save(product2);
 
@@ -147,19 +156,107 @@ public class ProductRepositoryTest {
 
         Order order1 = new Order(user);
         order1.setOrderProducts(Collections.singletonList(product1));
-        product1.getOrders().add(order1);
         orderRepository.save(order1);
 
         Order order2 = new Order(user);
         order2.setOrderProducts(Collections.singletonList(product2));
-        product2.getOrders().add(order2);
         orderRepository.save(order2);
 
         List<Product> allProducts = productRepository.findAll();
 
         assertThat(allProducts.size()).isEqualTo(2);
         assertThat(allProducts).extracting(Product::getName).containsExactlyInAnyOrder("Product 1", "Product 2");
-        assertThat(allProducts.get(0).getOrders()).isNotEmpty();
-        assertThat(allProducts.get(1).getOrders()).isNotEmpty();
+        assertThat(ordersContaining(allProducts.get(0))).isNotEmpty();
+        assertThat(ordersContaining(allProducts.get(1))).isNotEmpty();
+    }
+
+    @Test
+    void shouldPageProductIdsByKeyset() {
+        Product product1 = productRepository.save(new Product("Product 1", 1000));
+        Product product2 = productRepository.save(new Product("Product 2", 2000));
+        Product product3 = productRepository.save(new Product("Product 3", 3000));
+
+        List<Long> firstPage = productRepository.findIdsAfter(0L, Limit.of(2));
+        List<Long> secondPage = productRepository.findIdsAfter(firstPage.get(1), Limit.of(2));
+
+        assertThat(firstPage).containsExactly(product1.getId(), product2.getId());
+        assertThat(secondPage).containsExactly(product3.getId());
+        assertThat(productRepository.findAllByIdInOrderByIdAsc(firstPage))
+                .extracting(Product::getName)
+                .containsExactly("Product 1", "Product 2");
+    }
+
+    @Test
+    void shouldAssignIdsFromPooledSequenceOnSaveAll() {
+        List<Product> products = IntStream.rangeClosed(1, 120)
+                .mapToObj(i -> new Product("Bulk Product " + i, i))
+                .toList();
+
+        List<Product> savedProducts = productRepository.saveAll(products);
+        productRepository.flush();
+
+        assertThat(savedProducts).extracting(Product::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(productRepository.count()).isEqualTo(120);
+    }
+
+    @Test
+    void shouldInsertAllocatedAndUpdateOnlyExistingProducts() {
+        Product existing = productRepository.saveAndFlush(new Product("Existing", 1000));
+        List<Long> ids = productRepository.allocateIds(2);
+
+        productRepository.insertAll(List.of(new Product.Builder().withId(ids.get(0)).withName("Inserted").withPriceCents(1500).build()));
+        int[] counts = productRepository.updateAll(List.of(
+                new Product.Builder().withId(existing.getId()).withName("Updated").withPriceCents(2000).build(),
+                new Product.Builder().withId(ids.get(1)).withName("Deleted").withPriceCents(3000).build()));
+        entityManager.clear();
+
+        assertThat(counts).containsExactly(1, 0);
+        assertThat(productRepository.findById(ids.get(0))).map(Product::getName).contains("Inserted");
+        assertThat(productRepository.findById(existing.getId())).map(Product::getPriceCents).contains(2000L);
+        assertThat(productRepository.existsById(ids.get(1))).isFalse();
+    }
+
+    @Test
+    void shouldDeleteProductWithSetBasedDeletes() {
+        Product product = productRepository.save(new Product("Doomed Product", 10000));
+        Product keptProduct = productRepository.save(new Product("Kept Product", 5000));
+        User user = userRepository.save(new User("Test User", "test@example.com"));
+
+        Order order = new Order(user);
+        order.setOrderProducts(Arrays.asList(product, keptProduct));
+        order = orderRepository.saveAndFlush(order);
+
+        assertThat(productRepository.lockById(product.getId())).contains(product.getId());
+        assertThat(productRepository.deleteOrderItems(product.getId())).isEqualTo(1);
+        assertThat(productRepository.deleteProductById(product.getId())).isEqualTo(1);
+        productRepository.flush();
+        entityManager.clear();
+
+        assertThat(productRepository.existsById(product.getId())).isFalse();
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getOrderProducts())
+                .extracting(Product::getId)
+                .containsExactly(keptProduct.getId());
+    }
+
+    @Test
+    void shouldProjectProductSummaries() {
+        Product first = productRepository.save(new Product("Product1", 10000));
+        Product second = productRepository.save(new Product("Product2", 20000));
+        productRepository.flush();
+        entityManager.clear();
+
+        assertThat(productRepository.findSummariesAfter(0L, Limit.of(1)))
+                .extracting(ProductOutputDTO::getId, ProductOutputDTO::getName, ProductOutputDTO::getPrice)
+                .containsExactly(tuple(first.getId(), "Product1", 10000L));
+        assertThat(productRepository.findSummariesAfter(first.getId(), Limit.of(5)))
+                .extracting(ProductOutputDTO::getId)
+                .containsExactly(second.getId());
+    }
+
+    private List<Order> ordersContaining(Product product) {
+        return entityManager.createQuery(
+                        "select distinct i.order from OrderItem i where i.product = :product", Order.class)
+                .setParameter("product", product)
+                .getResultList();
     }
 }
@@ -17,6 +17,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = TestDataSourceConfig.class)
@@ -92,7 +93,7 @@ public class UserRepositoryTest {
 
     @Test
     void shouldRetrieveAllUsersWithOrders() {
-        Product product = new Product("Test Product", 100.0);
+        Product product = new Product("Test Product", 10000);
         product = productRepository.save(product);
 
         User user1 = new User("User 1", "user1@example.com");
@@ -139,4 +140,20 @@ public class UserRepositoryTest {
         assertThat(foundUser).isNotNull();
         assertThat(foundUser.getOrders().size()).isEqualTo(2);
     }
+
+    @Test
+    void shouldCountOrdersPerUser() {
+        User user1 = userRepository.save(new User("User1", "user1@example.com"));
+        User user2 = userRepository.save(new User("User2", "user2@example.com"));
+        User user3 = userRepository.save(new User("User3", "user3@example.com"));
+        orderRepository.save(new Order(user1));
+        orderRepository.save(new Order(user1));
+        orderRepository.save(new Order(user2));
+
+        assertThat(userRepository.countOrders(user1.getId())).isEqualTo(2L);
+        assertThat(userRepository.countOrders(user3.getId())).isZero();
+        assertThat(userRepository.countOrdersByUserIds(List.of(user1.getId(), user2.getId(), user3.getId())))
+                .extracting(row -> row[0], row -> row[1])
+                .containsExactlyInAnyOrder(tuple(user1.getId(), 2L), tuple(user2.getId(), 1L));
+    }
 }
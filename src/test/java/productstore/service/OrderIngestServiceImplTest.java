@@ -0,0 +1,248 @@
+package productstore.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import productstore.controller.dto.input.OrderInputDTO;
+import productstore.model.Order;
+import productstore.model.Product;
+import productstore.model.User;
+import productstore.repository.OrderRepository;
+import productstore.repository.ProductRepository;
+import productstore.repository.UserRepository;
+import productstore.service.exception.OrderQueueFullException;
+import productstore.service.exception.ProductNotFoundException;
+import productstore.service.exception.UserNotFoundException;
+import productstore.service.impl.OrderIngestServiceImpl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderIngestServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderIngestServiceImpl orderIngestService;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        orderIngestService.close();
+    }
+
+    @Test
+    public void testSubmit_CompletesWithIdsAfterCommit() throws Exception {
+        orderIngestService = service(new MockEnvironment().withProperty("productstore.orders.ingest.enabled", "true"));
+        stubLookups();
+        AtomicLong nextId = new AtomicLong(100);
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.forEach(order -> order.setId(nextId.getAndIncrement()));
+            return orders;
+        });
+
+        CompletableFuture<Long> first = orderIngestService.submit(order(1L, 1L, 2L, 2L));
+        CompletableFuture<Long> second = orderIngestService.submit(order(1L, 2L));
+        CompletableFuture<Long> unknownUser = orderIngestService.submit(order(9L, 1L));
+        CompletableFuture<Long> unknownProduct = orderIngestService.submit(order(1L, 5L, 5L));
+
+        assertEquals(100L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(101L, second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(UserNotFoundException.class, cause(unknownUser));
+        assertEquals("Products with ids [5] not found.", cause(unknownProduct).getMessage());
+        assertInstanceOf(ProductNotFoundException.class, cause(unknownProduct));
+        assertEquals(2, meterRegistry.get("productstore.orders.ingest.batch.size").summary().totalAmount());
+        assertTrue(meterRegistry.get("productstore.orders.ingest.commit").timer().count() >= 1);
+    }
+
+    @Test
+    public void testSubmit_FailsAnOrderThatCannotBeInserted() throws Exception {
+        orderIngestService = service(new MockEnvironment().withProperty("productstore.orders.ingest.enabled", "true"));
+        stubLookups();
+        when(orderRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("fk_order_item_product"));
+
+        CompletableFuture<Long> future = orderIngestService.submit(order(1L, 1L));
+
+        assertInstanceOf(DataIntegrityViolationException.class, cause(future));
+    }
+
+    @Test
+    public void testSubmit_ReportsProductDeletedBeforeInsertAsNotFound() throws Exception {
+        orderIngestService = service(new MockEnvironment().withProperty("productstore.orders.ingest.enabled", "true"));
+        stubLookups();
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L, 5L), List.of(1L, 2L));
+        when(orderRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("fk_order_item_product"));
+
+        CompletableFuture<Long> future = orderIngestService.submit(order(1L, 5L));
+
+        assertInstanceOf(ProductNotFoundException.class, cause(future));
+        assertEquals("Products with ids [5] not found.", cause(future).getMessage());
+    }
+
+    @Test
+    public void testSubmit_FailedBatchOnlyFailsTheBadOrder() throws Exception {
+        orderIngestService = service(new MockEnvironment().withProperty("productstore.orders.ingest.enabled", "true"));
+        stubLookups();
+        AtomicBoolean deleted = new AtomicBoolean();
+        when(productRepository.findExistingIds(anyCollection()))
+                .thenAnswer(invocation -> deleted.get() ? List.of(1L, 2L) : List.of(1L, 2L, 5L));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong nextId = new AtomicLong(1);
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            if (nextId.get() == 1) {
+                writing.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            if (orders.stream().anyMatch(order -> order.getOrderProducts().stream().anyMatch(product -> product.getId() == 5L))) {
+                deleted.set(true);
+                throw new DataIntegrityViolationException("fk_order_item_product");
+            }
+            orders.forEach(order -> order.setId(nextId.getAndIncrement()));
+            return orders;
+        });
+
+        CompletableFuture<Long> first = orderIngestService.submit(order(1L, 1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> good = orderIngestService.submit(order(1L, 2L));
+        CompletableFuture<Long> bad = orderIngestService.submit(order(1L, 5L));
+        release.countDown();
+
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(2L, good.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ProductNotFoundException.class, cause(bad));
+    }
+
+    @Test
+    public void testSubmit_RejectsOrdersLeftWhenWriterStops() throws Exception {
+        orderIngestService = service(new MockEnvironment()
+                .withProperty("productstore.orders.ingest.enabled", "true")
+                .withProperty("productstore.orders.ingest.batch-size", "1"));
+        stubLookups();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            throw new OutOfMemoryError();
+        });
+
+        CompletableFuture<Long> inBatch = orderIngestService.submit(order(1L, 1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> queued = orderIngestService.submit(order(1L, 1L));
+        release.countDown();
+
+        assertInstanceOf(OrderQueueFullException.class, cause(inBatch));
+        assertInstanceOf(OrderQueueFullException.class, cause(queued));
+        assertInstanceOf(OrderQueueFullException.class, cause(orderIngestService.submit(order(1L, 1L))));
+    }
+
+    @Test
+    public void testSubmit_RejectsOrdersAfterClose() throws Exception {
+        orderIngestService = service(new MockEnvironment().withProperty("productstore.orders.ingest.enabled", "true"));
+        orderIngestService.close();
+
+        assertInstanceOf(OrderQueueFullException.class, cause(orderIngestService.submit(order(1L, 1L))));
+    }
+
+    @Test
+    public void testSubmit_RejectsWhenQueueIsFull() throws Exception {
+        orderIngestService = service(new MockEnvironment()
+                .withProperty("productstore.orders.ingest.enabled", "true")
+                .withProperty("productstore.orders.ingest.queue-capacity", "1")
+                .withProperty("productstore.orders.ingest.batch-size", "1")
+                .withProperty("productstore.orders.ingest.offer-timeout-ms", "10"));
+        stubLookups();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong nextId = new AtomicLong(1);
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            List<Order> orders = invocation.getArgument(0);
+            orders.forEach(order -> order.setId(nextId.getAndIncrement()));
+            return orders;
+        });
+
+        CompletableFuture<Long> inBatch = orderIngestService.submit(order(1L, 1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> queued = orderIngestService.submit(order(1L, 1L));
+        CompletableFuture<Long> rejected = orderIngestService.submit(order(1L, 1L));
+
+        assertInstanceOf(OrderQueueFullException.class, cause(rejected));
+        assertEquals(1, meterRegistry.get("productstore.orders.ingest.queue.depth").gauge().value());
+        release.countDown();
+        assertEquals(1L, inBatch.get(5, TimeUnit.SECONDS));
+        assertEquals(2L, queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSubmit_Disabled() {
+        orderIngestService = service(new MockEnvironment());
+
+        assertFalse(orderIngestService.isEnabled());
+        assertInstanceOf(IllegalStateException.class, cause(orderIngestService.submit(order(1L, 1L))));
+    }
+
+    private OrderIngestServiceImpl service(MockEnvironment env) {
+        return new OrderIngestServiceImpl(orderRepository, userRepository, productRepository, transactionManager,
+                meterRegistry, env);
+    }
+
+    private void stubLookups() {
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            User user = new User("Test User", "test@example.com");
+            user.setId(invocation.getArgument(0));
+            return user;
+        });
+        when(productRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            Product product = new Product("Test Product", 1000);
+            product.setId(invocation.getArgument(0));
+            return product;
+        });
+    }
+
+    private static OrderInputDTO order(Long userId, Long... productIds) {
+        OrderInputDTO order = new OrderInputDTO();
+        order.setUserId(userId);
+        order.setProductIds(List.of(productIds));
+        return order;
+    }
+
+    private static Throwable cause(CompletableFuture<Long> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+}
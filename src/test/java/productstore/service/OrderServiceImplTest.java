@@ -1,26 +1,41 @@
 package productstore.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.transaction.annotation.Transactional;
 import productstore.controller.dto.input.OrderInputDTO;
 import productstore.controller.dto.input.ProductIdsDTO;
+import productstore.controller.dto.output.OrderExportDTO;
+import productstore.controller.dto.output.OrderExportItemDTO;
+import productstore.controller.dto.output.OrderItemOutputDTO;
 import productstore.controller.dto.output.OrderOutputDTO;
-import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.mapper.OrderMapper;
 import productstore.model.Order;
+import productstore.model.OrderItem;
 import productstore.model.Product;
+import productstore.model.User;
 import productstore.repository.OrderRepository;
+import productstore.repository.UserRepository;
+import productstore.service.cache.SingleFlight;
 import productstore.service.exception.OrderNotFoundException;
+import productstore.service.exception.PreconditionFailedException;
+import productstore.service.exception.UserNotFoundException;
 import productstore.service.impl.OrderServiceImpl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,9 +47,15 @@ public class OrderServiceImplTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
     @Mock
     private OrderMapper orderMapper;
 
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -48,9 +69,10 @@ public class OrderServiceImplTest {
     public void setUp() {
         order = new Order();
         order.setId(1L);
-        Product product1 = new Product("Test Product", 10.0);
+        Product product1 = new Product("Test Product", 1000);
         product1.setId(1L);
         order.setOrderProducts(Arrays.asList(product1));
+        order.setUser(new User("Test User", "test@example.com"));
 
         orderInputDTO = new OrderInputDTO();
         orderInputDTO.setUserId(1L);
@@ -61,28 +83,97 @@ public class OrderServiceImplTest {
 
         orderOutputDTO = new OrderOutputDTO();
         orderOutputDTO.setId(1L);
-        orderOutputDTO.setProducts(Arrays.asList(new ProductOutputDTO(1L, "Test Product", 10.0)));
+        orderOutputDTO.setProducts(Arrays.asList(new OrderItemOutputDTO(1L, "Test Product", 1000, 1)));
 
-        product = new Product("Test Product", 10.0);
+        product = new Product("Test Product", 1000);
         product.setId(1L);
     }
 
     @Test
     @Transactional(readOnly = true)
     public void testGetAllOrders() {
-        when(orderRepository.findAll()).thenReturn(Arrays.asList(order));
+        when(orderRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(Arrays.asList(1L));
+        when(orderRepository.findAllByIdInOrderByIdAsc(List.of(1L))).thenReturn(Arrays.asList(order));
         when(orderMapper.toDTOs(any())).thenReturn(Arrays.asList(orderOutputDTO));
 
-        List<OrderOutputDTO> result = orderService.getAllOrders();
+        PageOutputDTO<OrderOutputDTO> result = orderService.getAllOrders(null, 0);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(orderOutputDTO.getId(), result.get(0).getId());
+        assertEquals(1, result.getContent().size());
+        assertEquals(orderOutputDTO.getId(), result.getContent().get(0).getId());
+        assertNull(result.getNextCursor());
 
-        verify(orderRepository, times(1)).findAll();
+        verify(orderRepository, never()).findAll();
         verify(orderMapper, times(1)).toDTOs(any());
     }
 
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetAllOrders_IdsOnly() {
+        when(orderRepository.findIdsAfter(0L, Limit.of(3))).thenReturn(Arrays.asList(1L, 2L, 3L));
+
+        PageOutputDTO<OrderOutputDTO> result = orderService.getAllOrders(null, 2, FieldSet.parse("id", OrderOutputDTO.FIELDS));
+
+        assertEquals(List.of(1L, 2L), result.getContent().stream().map(OrderOutputDTO::getId).toList());
+        assertEquals(2L, result.getNextCursor());
+        verify(orderRepository, never()).findAllByIdInOrderByIdAsc(any());
+        verify(orderRepository, never()).findSummariesByIdIn(any());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetAllOrders_WithUserSkipsItems() {
+        when(orderRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L));
+        when(orderRepository.findSummariesByIdIn(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 2L, "Alice", "alice@example.com"}));
+
+        PageOutputDTO<OrderOutputDTO> result = orderService.getAllOrders(null, 1, FieldSet.parse("id,user", OrderOutputDTO.FIELDS));
+
+        OrderOutputDTO dto = result.getContent().get(0);
+        assertEquals(1L, dto.getId());
+        assertEquals(2L, dto.getUser().getId());
+        assertEquals("alice@example.com", dto.getUser().getEmail());
+        assertNull(dto.getProducts());
+        verify(orderRepository, never()).findAllByIdInOrderByIdAsc(any());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetOrdersByUserId() {
+        when(orderRepository.findIdsByUserIdAfter(1L, 0L, Limit.of(2))).thenReturn(Arrays.asList(1L, 2L));
+        when(orderRepository.findAllByIdInOrderByIdAsc(List.of(1L))).thenReturn(Arrays.asList(order));
+        when(orderMapper.toDTOs(any())).thenReturn(Arrays.asList(orderOutputDTO));
+
+        PageOutputDTO<OrderOutputDTO> result = orderService.getOrdersByUserId(1L, null, 1);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(1L, result.getNextCursor());
+
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetOrdersByUserId_NoOrders() {
+        when(orderRepository.findIdsByUserIdAfter(1L, 0L, Limit.of(2))).thenReturn(List.of());
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        PageOutputDTO<OrderOutputDTO> result = orderService.getOrdersByUserId(1L, null, 1);
+
+        assertTrue(result.getContent().isEmpty());
+        assertNull(result.getNextCursor());
+        verify(orderRepository, never()).findAllByIdInOrderByIdAsc(any());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetOrdersByUserId_UserNotFound() {
+        when(orderRepository.findIdsByUserIdAfter(1L, 0L, Limit.of(2))).thenReturn(List.of());
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> orderService.getOrdersByUserId(1L, null, 1));
+    }
+
     @Test
     @Transactional(readOnly = true)
     public void testGetOrderById() {
@@ -98,6 +189,18 @@ public class OrderServiceImplTest {
         verify(orderMapper, times(1)).toDTO(order);
     }
 
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetOrderById_WithVersionTag() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderMapper.toDTO(order)).thenReturn(orderOutputDTO);
+
+        OrderOutputDTO result = orderService.getOrderById(1L, "1-1-0");
+
+        assertSame(orderOutputDTO, result);
+        verify(singleFlight).load(eq("orders.tagged"), eq(List.of(1L, "1-1-0")), any());
+    }
+
     @Test
     @Transactional(readOnly = true)
     public void testGetOrderById_NotFound() {
@@ -133,8 +236,7 @@ public class OrderServiceImplTest {
         orderService.deleteOrderById(1L);
 
         verify(orderRepository, times(1)).findById(1L);
-        verify(orderRepository, times(1)).save(order);
-        verify(orderRepository, times(1)).deleteById(1L);
+        verify(orderRepository, times(1)).delete(order);
     }
 
     @Test
@@ -147,32 +249,115 @@ public class OrderServiceImplTest {
         verify(orderRepository, times(1)).findById(1L);
     }
 
+    @Test
+    @Transactional(readOnly = true)
+    public void testExportOrders() {
+        when(orderRepository.streamOrderItemRows()).thenReturn(Stream.of(
+                new Object[]{1L, 10L, 100L, 1},
+                new Object[]{1L, 10L, 101L, 3},
+                new Object[]{2L, 11L, null, null},
+                new Object[]{3L, 10L, 100L, 2}));
+        List<OrderExportDTO> exported = new ArrayList<>();
+
+        orderService.exportOrders(exported::add);
+
+        assertEquals(3, exported.size());
+        assertEquals(1L, exported.get(0).getId());
+        assertEquals(10L, exported.get(0).getUserId());
+        assertEquals(Arrays.asList(100L, 101L),
+                exported.get(0).getItems().stream().map(OrderExportItemDTO::getProductId).toList());
+        assertEquals(3, exported.get(0).getItems().get(1).getQuantity());
+        assertTrue(exported.get(1).getItems().isEmpty());
+        assertEquals(2, exported.get(2).getItems().get(0).getQuantity());
+    }
+
     @Test
     @Transactional
     public void testUpdateOrderById() {
-        when(orderRepository.findById(anyLong())).thenReturn(Optional.of(order));
+        when(orderRepository.lockById(1L)).thenReturn(Optional.of(order));
         when(orderMapper.mapProductIdsToProducts(any())).thenReturn(Arrays.asList(product));
-        when(orderRepository.save(any())).thenReturn(order);
         when(orderMapper.toDTO(any())).thenReturn(orderOutputDTO);
 
         OrderOutputDTO result = orderService.updateOrderById(1L, productIdsDTO);
 
         assertNotNull(result);
         assertEquals(orderOutputDTO.getId(), result.getId());
+        assertEquals(1, order.getItems().size());
+        assertEquals(2, order.getItems().iterator().next().getQuantity());
 
-        verify(orderRepository, times(1)).findById(1L);
+        verify(orderRepository, times(1)).lockById(1L);
         verify(orderMapper, times(1)).mapProductIdsToProducts(productIdsDTO.getProductIds());
-        verify(orderRepository, times(1)).save(order);
+        verify(orderRepository, never()).save(any());
         verify(orderMapper, times(1)).toDTO(order);
+        assertNotNull(result.getVersionTag());
+    }
+
+    @Test
+    @Transactional
+    public void testUpdateOrderById_AddsNewItemsAndMergesRepeatedProducts() {
+        Product product2 = new Product("Second Product", 2000);
+        product2.setId(2L);
+        when(orderRepository.lockById(1L)).thenReturn(Optional.of(order));
+        when(orderMapper.mapProductIdsToProducts(any())).thenReturn(Arrays.asList(product2, product2));
+        when(orderMapper.toDTO(any())).thenReturn(orderOutputDTO);
+
+        orderService.updateOrderById(1L, productIdsDTO);
+
+        assertEquals(Arrays.asList(1L, 2L), order.getOrderProducts().stream().map(Product::getId).toList());
+        assertEquals(Arrays.asList(1, 2), order.getItems().stream().map(OrderItem::getQuantity).toList());
     }
 
     @Test
     @Transactional
     public void testUpdateOrderById_NotFound() {
-        when(orderRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(orderRepository.lockById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(OrderNotFoundException.class, () -> orderService.updateOrderById(1L, productIdsDTO));
 
-        verify(orderRepository, times(1)).findById(1L);
+        verify(orderRepository, times(1)).lockById(1L);
+    }
+
+    @Test
+    @Transactional
+    public void testUpdateOrderById_IfMatchMismatch() {
+        when(orderRepository.lockById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(PreconditionFailedException.class, () -> orderService.updateOrderById(1L, productIdsDTO, Set.of("stale")));
+
+        verify(orderMapper, never()).mapProductIdsToProducts(any());
+        assertEquals(1, order.getItems().iterator().next().getQuantity());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetOrderVersionTag_MatchesTagOfUpdate() {
+        when(orderRepository.lockById(1L)).thenReturn(Optional.of(order));
+        when(orderMapper.mapProductIdsToProducts(any())).thenReturn(List.of());
+        when(orderMapper.toDTO(any())).thenReturn(orderOutputDTO);
+        when(orderRepository.findVersionRows(1L)).thenReturn(List.<Object[]>of(new Object[]{0L, 0L, 1L, 0L, 1}));
+
+        String tag = orderService.getOrderVersionTag(1L);
+
+        assertEquals(tag, orderService.updateOrderById(1L, productIdsDTO, Set.of(tag)).getVersionTag());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetOrderVersionTag_ChangesWithProductVersionAndQuantity() {
+        when(orderRepository.findVersionRows(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{0L, 0L, 1L, 0L, 1}))
+                .thenReturn(List.<Object[]>of(new Object[]{0L, 0L, 1L, 1L, 1}))
+                .thenReturn(List.<Object[]>of(new Object[]{0L, 0L, 1L, 0L, 2}));
+
+        assertEquals(3, Set.of(orderService.getOrderVersionTag(1L), orderService.getOrderVersionTag(1L),
+                orderService.getOrderVersionTag(1L)).size());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetOrderVersionTag_NotFound() {
+        when(orderRepository.findVersionRows(1L)).thenReturn(List.of());
+
+        assertThrows(OrderNotFoundException.class, () -> orderService.getOrderVersionTag(1L));
     }
 }
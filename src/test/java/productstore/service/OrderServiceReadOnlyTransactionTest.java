@@ -0,0 +1,137 @@
+package productstore.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import productstore.config.TestDataSourceConfig;
+import productstore.controller.mapper.OrderMapper;
+import productstore.model.Order;
+import productstore.model.OrderItem;
+import productstore.model.Product;
+import productstore.model.User;
+import productstore.repository.OrderRepository;
+import productstore.repository.ProductRepository;
+import productstore.repository.UserRepository;
+import productstore.service.cache.SingleFlight;
+import productstore.service.impl.OrderServiceImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link OrderService#getAllOrders} in its own read-only transaction and inspects the session
+ * while the orders are being mapped.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = OrderServiceReadOnlyTransactionTest.Config.class)
+@ActiveProfiles("test")
+public class OrderServiceReadOnlyTransactionTest {
+
+    @Configuration
+    @Profile("test")
+    @Import({TestDataSourceConfig.class, OrderServiceImpl.class})
+    static class Config {
+
+        @Bean
+        public OrderMapper orderMapper() {
+            return Mockito.mock(OrderMapper.class);
+        }
+
+        // Autowired into the mapper's setters, which the mock inherits.
+        @Bean
+        public UserService userService() {
+            return Mockito.mock(UserService.class);
+        }
+
+        @Bean
+        public ProductService productService() {
+            return Mockito.mock(ProductService.class);
+        }
+
+        @Bean
+        public SingleFlight singleFlight() {
+            return new SingleFlight(new SimpleMeterRegistry());
+        }
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(orderMapper);
+        orderId = new TransactionTemplate(transactionManager).execute(status -> {
+            orderRepository.deleteAll();
+            productRepository.deleteAll();
+            userRepository.deleteAll();
+            User user = userRepository.save(new User("Test User", "test@example.com"));
+            Product product = productRepository.save(new Product("Test Product", 10000));
+            Order order = new Order(user);
+            order.setOrderProducts(Collections.singletonList(product));
+            return orderRepository.save(order).getId();
+        });
+    }
+
+    @Test
+    void getAllOrdersSkipsDirtyChecking() {
+        List<Object> observed = new ArrayList<>();
+        when(orderMapper.toDTOs(anyList())).thenAnswer(invocation -> {
+            Session session = entityManager.unwrap(Session.class);
+            Order order = invocation.<List<Order>>getArgument(0).get(0);
+            observed.add(session.getHibernateFlushMode());
+            observed.add(session.isDefaultReadOnly());
+            observed.add(session.isReadOnly(order));
+            order.getItems().iterator().next().setQuantity(5);
+            return List.of();
+        });
+
+        orderService.getAllOrders(null, 10);
+
+        assertThat(observed).containsExactly(FlushMode.MANUAL, true, true);
+        Integer quantity = new TransactionTemplate(transactionManager).execute(status ->
+                orderRepository.findById(orderId).orElseThrow().getItems().stream()
+                        .map(OrderItem::getQuantity).findFirst().orElseThrow());
+        assertThat(quantity).isEqualTo(1);
+    }
+}
@@ -0,0 +1,157 @@
+package productstore.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import productstore.controller.dto.input.ProductBulkInputDTO;
+import productstore.controller.dto.output.ProductBulkResultDTO;
+import productstore.controller.dto.output.ProductBulkResultDTO.Status;
+import productstore.model.Product;
+import productstore.repository.ProductRepository;
+import productstore.service.cache.ProductCache;
+import productstore.service.cache.SingleFlight;
+import productstore.service.impl.ProductBulkServiceImpl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductBulkServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private ProductBulkServiceImpl productBulkService;
+
+    @BeforeEach
+    public void setUp() {
+        MockEnvironment env = new MockEnvironment().withProperty("productstore.bulk.chunk-size", "2");
+        productBulkService = new ProductBulkServiceImpl(productRepository, new ProductCache(100, Duration.ofMinutes(5), new SingleFlight(new SimpleMeterRegistry())),
+                validator, transactionManager, env);
+    }
+
+    @Test
+    public void testSaveProducts() {
+        when(productRepository.updateAll(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            return products.stream().mapToInt(product -> product.getId() == 7L ? 1 : 0).toArray();
+        });
+        when(productRepository.allocateIds(anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(0);
+            return count == 0 ? List.of() : List.of(100L);
+        });
+
+        List<ProductBulkResultDTO> results = productBulkService.saveProducts(Arrays.asList(
+                item(null, "New Product", 1000),
+                item(7L, "Updated Product", 2000),
+                item(null, "", -100),
+                item(8L, "Missing Product", 3000)).iterator());
+
+        assertEquals(4, results.size());
+        assertResult(results.get(0), 0, 100L, Status.CREATED);
+        assertResult(results.get(1), 1, 7L, Status.UPDATED);
+        assertResult(results.get(2), 2, null, Status.INVALID);
+        assertTrue(results.get(2).getErrors().containsKey("name"));
+        assertTrue(results.get(2).getErrors().containsKey("price"));
+        assertResult(results.get(3), 3, 8L, Status.NOT_FOUND);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(productRepository, times(1)).insertAll(inserts.capture());
+        assertEquals(List.of(100L), inserts.getValue().stream().map(Product::getId).toList());
+        verify(productRepository, times(2)).updateAll(anyList());
+        verify(productRepository, never()).findExistingIds(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    public void testSaveProducts_RetriesRejectedChunkItemByItem() {
+        when(productRepository.allocateIds(anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(0);
+            return count == 0 ? List.of() : List.of(100L);
+        });
+        when(productRepository.updateAll(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            if (products.stream().anyMatch(product -> product.getId() == 9L)) {
+                throw new DataIntegrityViolationException("numeric field overflow");
+            }
+            return products.stream().mapToInt(product -> 1).toArray();
+        });
+
+        List<ProductBulkResultDTO> results = productBulkService.saveProducts(Arrays.asList(
+                item(7L, "Updated Product", 2000),
+                item(9L, "Rejected Product", 3000),
+                item(null, "New Product", 1000)).iterator());
+
+        assertEquals(3, results.size());
+        assertResult(results.get(0), 0, 7L, Status.UPDATED);
+        assertResult(results.get(1), 1, 9L, Status.FAILED);
+        assertResult(results.get(2), 2, 100L, Status.CREATED);
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    public void testSaveProducts_WritesRepeatedIdOnce() {
+        when(productRepository.allocateIds(anyInt())).thenReturn(List.of());
+        when(productRepository.updateAll(anyList())).thenReturn(new int[]{1});
+
+        List<ProductBulkResultDTO> results = productBulkService.saveProducts(Arrays.asList(
+                item(7L, "First Name", 2000),
+                item(7L, "Second Name", 2500)).iterator());
+
+        assertResult(results.get(0), 0, 7L, Status.UPDATED);
+        assertResult(results.get(1), 1, 7L, Status.UPDATED);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> updates = ArgumentCaptor.forClass(List.class);
+        verify(productRepository).updateAll(updates.capture());
+        assertEquals(1, updates.getValue().size());
+        assertEquals("Second Name", updates.getValue().get(0).getName());
+    }
+
+    @Test
+    public void testSaveProducts_RejectsPriceBeyondColumn() {
+        when(productRepository.allocateIds(anyInt())).thenReturn(List.of());
+
+        List<ProductBulkResultDTO> results = productBulkService.saveProducts(List.of(
+                item(null, "Too Expensive", 10_000_000_000L)).iterator());
+
+        assertResult(results.get(0), 0, null, Status.INVALID);
+        assertTrue(results.get(0).getErrors().containsKey("price"));
+        verify(productRepository, never()).insertAll(anyList());
+    }
+
+    private static ProductBulkInputDTO item(Long id, String name, long price) {
+        ProductBulkInputDTO item = new ProductBulkInputDTO();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(price);
+        return item;
+    }
+
+    private static void assertResult(ProductBulkResultDTO result, int index, Long id, Status status) {
+        assertEquals(index, result.getIndex());
+        assertEquals(id, result.getId());
+        assertEquals(status, result.getStatus());
+    }
+}
@@ -1,23 +1,32 @@
 package productstore.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import productstore.controller.dto.input.ProductInputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.ProductOutputDTO;
 import productstore.controller.mapper.ProductMapper;
 import productstore.model.Order;
 import productstore.model.Product;
-import productstore.repository.OrderRepository;
 import productstore.repository.ProductRepository;
+import productstore.service.cache.ProductCache;
+import productstore.service.cache.SingleFlight;
+import productstore.service.exception.PreconditionFailedException;
 import productstore.service.exception.ProductNotFoundException;
 import productstore.service.impl.ProductServiceImpl;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -32,8 +41,14 @@ public class ProductServiceImplTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(5), singleFlight);
+
     @Mock
-    private OrderRepository orderRepository;
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private ProductServiceImpl productService;
@@ -45,22 +60,21 @@ public class ProductServiceImplTest {
 
     @BeforeEach
     public void setUp() {
-        product = new Product("Test Product", 10.0);
+        product = new Product("Test Product", 1000);
         product.setId(1L);
 
         productInputDTO = new ProductInputDTO();
         productInputDTO.setName("Test Product");
-        productInputDTO.setPrice(10.0);
+        productInputDTO.setPrice(1000);
 
         productOutputDTO = new ProductOutputDTO();
         productOutputDTO.setId(1L);
         productOutputDTO.setName("Test Product");
-        productOutputDTO.setPrice(10.0);
+        productOutputDTO.setPrice(1000);
 
         order = new Order();
         order.setId(1L);
 
-        product.setOrders(new ArrayList<>(Collections.singletonList(order)));
         order.setOrderProducts(new ArrayList<>(Collections.singletonList(product)));
     }
 
@@ -88,22 +102,90 @@ public class ProductServiceImplTest {
         verify(productRepository, times(1)).findById(1L);
     }
 
+    @Test
+    @Transactional(readOnly = true)
+    public void testFindAllByIds_KeepsRequestOrderAndDuplicates() {
+        Product product2 = new Product("Second Product", 2000);
+        product2.setId(2L);
+        when(productRepository.findByIdIn(Set.of(1L, 2L))).thenReturn(Arrays.asList(product, product2));
+
+        List<Product> result = productService.findAllByIds(Arrays.asList(2L, 1L, 2L));
+
+        assertEquals(Arrays.asList(product2, product, product2), result);
+        verify(productRepository, times(1)).findByIdIn(Set.of(1L, 2L));
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testFindAllByIds_ReportsAllMissingIds() {
+        when(productRepository.findByIdIn(any())).thenReturn(Arrays.asList(product));
+
+        ProductNotFoundException exception = assertThrows(ProductNotFoundException.class,
+                () -> productService.findAllByIds(Arrays.asList(1L, 7L, 8L, 7L)));
+
+        assertEquals("Products with ids [7, 8] not found.", exception.getMessage());
+    }
+
     @Test
     @Transactional(readOnly = true)
     public void testGetAllProducts() {
-        when(productRepository.findAll()).thenReturn(Arrays.asList(product));
+        when(productRepository.findIdsAfter(0L, Limit.of(21))).thenReturn(List.of(1L));
+        when(productRepository.findAllByIdInOrderByIdAsc(List.of(1L))).thenReturn(Arrays.asList(product));
         when(productMapper.toDTOs(any())).thenReturn(Arrays.asList(productOutputDTO));
 
-        List<ProductOutputDTO> result = productService.getAllProducts();
+        PageOutputDTO<ProductOutputDTO> result = productService.getAllProducts(null, 20);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(productOutputDTO.getId(), result.get(0).getId());
+        assertEquals(1, result.getContent().size());
+        assertEquals(productOutputDTO.getId(), result.getContent().get(0).getId());
+        assertNull(result.getNextCursor());
 
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findIdsAfter(0L, Limit.of(21));
+        verify(productRepository, never()).findAll();
         verify(productMapper, times(1)).toDTOs(any());
     }
 
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetAllProducts_NextCursorAndCappedLimit() {
+        List<Long> ids = LongStream.rangeClosed(6, 6 + Pagination.MAX_LIMIT).boxed().toList();
+        when(productRepository.findIdsAfter(5L, Limit.of(Pagination.MAX_LIMIT + 1))).thenReturn(ids);
+        when(productRepository.findAllByIdInOrderByIdAsc(ids.subList(0, Pagination.MAX_LIMIT))).thenReturn(Arrays.asList(product));
+        when(productMapper.toDTOs(any())).thenReturn(Arrays.asList(productOutputDTO));
+
+        PageOutputDTO<ProductOutputDTO> result = productService.getAllProducts(5L, 10_000);
+
+        assertEquals(5L + Pagination.MAX_LIMIT, result.getNextCursor());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetAllProducts_WithFieldsUsesProjection() {
+        List<ProductOutputDTO> rows = List.of(new ProductOutputDTO(1L, "A", 100), new ProductOutputDTO(2L, "B", 200));
+        when(productRepository.findSummariesAfter(0L, Limit.of(2))).thenReturn(rows);
+
+        PageOutputDTO<ProductOutputDTO> result = productService.getAllProducts(null, 1, FieldSet.parse("id,name", ProductOutputDTO.FIELDS));
+
+        assertEquals(List.of(rows.get(0)), result.getContent());
+        assertEquals(1L, result.getNextCursor());
+        verify(productRepository, never()).findIdsAfter(anyLong(), any(Limit.class));
+        verify(productMapper, never()).toDTOs(any());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetAllProducts_Empty() {
+        when(productRepository.findIdsAfter(anyLong(), any(Limit.class))).thenReturn(List.of());
+        when(productMapper.toDTOs(any())).thenReturn(List.of());
+
+        PageOutputDTO<ProductOutputDTO> result = productService.getAllProducts(100L, 20);
+
+        assertTrue(result.getContent().isEmpty());
+        assertNull(result.getNextCursor());
+        verify(productRepository, never()).findAllByIdInOrderByIdAsc(any());
+    }
+
     @Test
     @Transactional(readOnly = true)
     public void testGetProductById() {
@@ -119,6 +201,45 @@ public class ProductServiceImplTest {
         verify(productMapper, times(1)).toDTO(product);
     }
 
+    @Test
+    public void testGetProductById_ServedFromCache() {
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
+        when(productMapper.toDTO(any())).thenReturn(productOutputDTO);
+
+        productService.getProductById(1L);
+        ProductOutputDTO result = productService.getProductById(1L);
+
+        assertEquals(productOutputDTO, result);
+        assertEquals(1, productCache.stats().hitCount());
+        assertEquals(1, productCache.stats().missCount());
+        verify(productRepository, times(1)).findById(1L);
+        verify(singleFlight, times(1)).load(eq("products"), eq(1L), any());
+    }
+
+    @Test
+    public void testGetProductById_LoadsInReadWriteTransaction() {
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
+        when(productMapper.toDTO(any())).thenReturn(productOutputDTO);
+
+        productService.getProductById(1L);
+
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    public void testUpdateProductById_EvictsCachedProduct() {
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
+        when(productMapper.toDTO(any())).thenReturn(productOutputDTO);
+
+        productService.getProductById(1L);
+        productService.updateProductById(1L, productInputDTO);
+        productService.getProductById(1L);
+
+        verify(productCache, times(1)).evict(1L);
+        verify(productRepository, times(3)).findById(1L);
+    }
+
     @Test
     @Transactional(readOnly = true)
     public void testGetProductById_NotFound() {
@@ -149,25 +270,27 @@ public class ProductServiceImplTest {
     @Test
     @Transactional
     public void testDeleteProductById() {
-        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
-        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(productRepository.lockById(anyLong())).thenReturn(Optional.of(1L));
 
         productService.deleteProductById(1L);
 
-        verify(productRepository, times(1)).findById(1L);
-        verify(orderRepository, times(1)).save(any(Order.class));
-        verify(productRepository, times(1)).delete(product);
+        verify(productCache, times(1)).evict(1L);
+        verify(productRepository, times(1)).lockById(1L);
+        verify(productRepository, times(1)).deleteOrderItems(1L);
+        verify(productRepository, times(1)).deleteProductById(1L);
+        verify(productRepository, never()).findById(anyLong());
     }
 
 
     @Test
     @Transactional
     public void testDeleteProductById_NotFound() {
-        when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(productRepository.lockById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ProductNotFoundException.class, () -> productService.deleteProductById(1L));
 
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).lockById(1L);
+        verify(productRepository, never()).deleteOrderItems(anyLong());
     }
 
     @Test
@@ -197,4 +320,16 @@ public class ProductServiceImplTest {
 
         verify(productRepository, times(1)).findById(1L);
     }
+
+    @Test
+    @Transactional
+    public void testUpdateProductById_IfMatchMismatch() {
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> productService.updateProductById(1L, productInputDTO, Set.of(String.valueOf(product.getVersion() + 1))));
+
+        verify(productRepository, never()).save(any());
+        verify(productCache, never()).evict(anyLong());
+    }
 }
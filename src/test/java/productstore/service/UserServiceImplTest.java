@@ -1,18 +1,23 @@
 package productstore.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.transaction.annotation.Transactional;
 import productstore.controller.dto.input.UserChangeEmailDTO;
 import productstore.controller.dto.input.UserInputDTO;
+import productstore.controller.dto.output.PageOutputDTO;
 import productstore.controller.dto.output.UserOutputDTO;
 import productstore.controller.mapper.UserMapper;
 import productstore.model.User;
 import productstore.repository.UserRepository;
+import productstore.service.cache.SingleFlight;
 import productstore.service.exception.UserNotFoundException;
 import productstore.service.impl.UserServiceImpl;
 
@@ -33,6 +38,9 @@ public class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -60,49 +68,90 @@ public class UserServiceImplTest {
 
     @Test
     @Transactional(readOnly = true)
-    public void testFindById() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+    public void testGetReferenceById() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
 
-        User result = userService.findById(1L);
-
-        assertNotNull(result);
-        assertEquals(user.getId(), result.getId());
-        assertEquals(user.getEmail(), result.getEmail());
+        User result = userService.getReferenceById(1L);
 
-        verify(userRepository, times(1)).findById(1L);
+        assertSame(user, result);
+        verify(userRepository, never()).findById(anyLong());
     }
 
     @Test
     @Transactional(readOnly = true)
-    public void testFindById_NotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+    public void testGetReferenceById_NotFound() {
+        when(userRepository.existsById(1L)).thenReturn(false);
 
-        assertThrows(UserNotFoundException.class, () -> userService.findById(1L));
+        assertThrows(UserNotFoundException.class, () -> userService.getReferenceById(1L));
 
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, never()).getReferenceById(anyLong());
     }
 
     @Test
     @Transactional(readOnly = true)
     public void testGetAllUsers() {
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user));
-        when(userMapper.toDTOs(any())).thenReturn(Arrays.asList(userOutputDTO));
+        when(userRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(Arrays.asList(1L, 2L));
+        when(userRepository.findAllByIdInOrderByIdAsc(List.of(1L))).thenReturn(Arrays.asList(user));
+        when(userRepository.countOrdersByUserIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 3L}));
+        when(userMapper.toDTO(user, 3L)).thenReturn(userOutputDTO);
 
-        List<UserOutputDTO> result = userService.getAllUsers();
+        PageOutputDTO<UserOutputDTO> result = userService.getAllUsers(null, 1);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(userOutputDTO.getId(), result.get(0).getId());
+        assertEquals(1, result.getContent().size());
+        assertEquals(userOutputDTO.getId(), result.getContent().get(0).getId());
+        assertEquals(1L, result.getNextCursor());
+
+        verify(userRepository, never()).findAll();
+        verify(userMapper, times(1)).toDTO(user, 3L);
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetAllUsers_DefaultsOrderCountToZero() {
+        when(userRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L));
+        when(userRepository.findAllByIdInOrderByIdAsc(List.of(1L))).thenReturn(List.of(user));
+        when(userRepository.countOrdersByUserIds(List.of(1L))).thenReturn(List.of());
+        when(userMapper.toDTO(user, 0L)).thenReturn(userOutputDTO);
+
+        PageOutputDTO<UserOutputDTO> result = userService.getAllUsers(null, 1);
+
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetAllUsers_WithoutOrderCountSkipsCounting() {
+        when(userRepository.findSummariesAfter(0L, Limit.of(2))).thenReturn(List.of(userOutputDTO));
+
+        PageOutputDTO<UserOutputDTO> result = userService.getAllUsers(null, 1, FieldSet.parse("id,name", UserOutputDTO.FIELDS));
+
+        assertEquals(List.of(userOutputDTO), result.getContent());
+        assertNull(result.getNextCursor());
+        verify(userRepository, never()).countOrdersByUserIds(any());
+        verify(userRepository, never()).findAllByIdInOrderByIdAsc(any());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void testGetUserById_WithoutOrderCountSkipsCounting() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userMapper.toSummaryDTO(user)).thenReturn(userOutputDTO);
+
+        UserOutputDTO result = userService.getUserById(1L, FieldSet.parse("id,name", UserOutputDTO.FIELDS));
 
-        verify(userRepository, times(1)).findAll();
-        verify(userMapper, times(1)).toDTOs(any());
+        assertSame(userOutputDTO, result);
+        verify(userRepository, never()).countOrders(anyLong());
     }
 
     @Test
     @Transactional(readOnly = true)
     public void testGetUserById() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(userMapper.toDTO(any())).thenReturn(userOutputDTO);
+        when(userRepository.countOrders(1L)).thenReturn(2L);
+        when(userMapper.toDTO(user, 2L)).thenReturn(userOutputDTO);
 
         UserOutputDTO result = userService.getUserById(1L);
 
@@ -110,7 +159,7 @@ public class UserServiceImplTest {
         assertEquals(userOutputDTO.getId(), result.getId());
 
         verify(userRepository, times(1)).findById(1L);
-        verify(userMapper, times(1)).toDTO(user);
+        verify(userMapper, times(1)).toDTO(user, 2L);
     }
 
     @Test
@@ -128,7 +177,7 @@ public class UserServiceImplTest {
     public void testSaveUser() {
         when(userMapper.toEntity(any())).thenReturn(user);
         when(userRepository.save(any())).thenReturn(user);
-        when(userMapper.toDTO(any())).thenReturn(userOutputDTO);
+        when(userMapper.toDTO(user, 0L)).thenReturn(userOutputDTO);
 
         UserOutputDTO result = userService.saveUser(userInputDTO);
 
@@ -137,7 +186,7 @@ public class UserServiceImplTest {
 
         verify(userMapper, times(1)).toEntity(userInputDTO);
         verify(userRepository, times(1)).save(user);
-        verify(userMapper, times(1)).toDTO(user);
+        verify(userMapper, times(1)).toDTO(user, 0L);
     }
 
     @Test
@@ -155,7 +204,8 @@ public class UserServiceImplTest {
     public void testUpdateUserById() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(userMapper.toDTO(any(User.class))).thenAnswer(invocation -> {
+        when(userRepository.countOrders(1L)).thenReturn(0L);
+        when(userMapper.toDTO(any(User.class), anyLong())).thenAnswer(invocation -> {
             User savedUser = invocation.getArgument(0);
             UserOutputDTO dto = new UserOutputDTO();
             dto.setId(savedUser.getId());
@@ -170,7 +220,7 @@ public class UserServiceImplTest {
 
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).save(user);
-        verify(userMapper, times(1)).toDTO(user);
+        verify(userMapper, times(1)).toDTO(user, 0L);
     }
 
     @Test
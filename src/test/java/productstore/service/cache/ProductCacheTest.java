@@ -0,0 +1,52 @@
+package productstore.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import productstore.controller.dto.output.ProductOutputDTO;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCacheTest {
+
+    private final ProductCache productCache = new ProductCache(100, Duration.ofMinutes(5),
+            new SingleFlight(new SimpleMeterRegistry()));
+
+    @Test
+    public void testLoad_CachesResult() {
+        ProductOutputDTO product = new ProductOutputDTO(1L, "Product", 1000L);
+
+        assertSame(product, productCache.load(1L, id -> product));
+
+        assertSame(product, productCache.getIfPresent(1L));
+        assertEquals(0, productCache.stats().missCount());
+    }
+
+    @Test
+    public void testLoad_KeepsEntryCachedMeanwhile() {
+        ProductOutputDTO cached = new ProductOutputDTO(1L, "Cached", 1000L);
+        ProductOutputDTO loaded = new ProductOutputDTO(1L, "Loaded", 1000L);
+
+        assertSame(cached, productCache.load(1L, id -> {
+            productCache.load(1L, key -> cached);
+            return loaded;
+        }));
+        assertSame(cached, productCache.getIfPresent(1L));
+    }
+
+    @Test
+    public void testLoad_DoesNotCacheResultOfLoadOverlappingEviction() {
+        ProductOutputDTO stale = new ProductOutputDTO(1L, "Before update", 1000L);
+
+        assertSame(stale, productCache.load(1L, id -> {
+            productCache.evict(1L);
+            return stale;
+        }));
+
+        assertNull(productCache.getIfPresent(1L));
+        ProductOutputDTO fresh = new ProductOutputDTO(1L, "After update", 2000L);
+        assertSame(fresh, productCache.load(1L, id -> fresh));
+        assertSame(fresh, productCache.getIfPresent(1L));
+    }
+}
@@ -0,0 +1,131 @@
+package productstore.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import productstore.service.exception.ProductNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final SingleFlight singleFlight = new SingleFlight(registry);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private double calls(String name, String result) {
+        return registry.get(SingleFlight.METER + ".calls").tag("name", name).tag("result", result).counter().count();
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> singleFlight.load("products", 1L, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "product 1";
+        }));
+        awaitInFlight(1);
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            followers.add(executor.submit(() -> singleFlight.load("products", 1L, () -> {
+                loads.incrementAndGet();
+                return "reloaded";
+            })));
+        }
+        while (calls("products", "shared") < 7) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("product 1", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("product 1", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, calls("products", "loaded"));
+        assertEquals(0, registry.get(SingleFlight.METER + ".in.flight").gauge().value());
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotKept() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load("products", 1L, () -> {
+            await(release);
+            throw new ProductNotFoundException("Product with id 1 not found.");
+        }));
+        awaitInFlight(1);
+        Future<String> follower = executor.submit(() -> singleFlight.load("products", 1L, () -> "unused"));
+        while (calls("products", "shared") < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertInstanceOf(ProductNotFoundException.class, assertThrows(ExecutionException.class,
+                () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(ProductNotFoundException.class, assertThrows(ExecutionException.class,
+                () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals("product 1", singleFlight.load("products", 1L, () -> "product 1"));
+        assertEquals(2, calls("products", "loaded"));
+    }
+
+    @Test
+    public void testForgottenFlightIsNotJoined() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> before = executor.submit(() -> singleFlight.load("products", 1L, () -> {
+            await(release);
+            return "before update";
+        }));
+        awaitInFlight(1);
+
+        singleFlight.forget("products", 1L);
+
+        assertEquals("after update", singleFlight.load("products", 1L, () -> "after update"));
+        release.countDown();
+        assertEquals("before update", before.get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls("products", "loaded"));
+        assertEquals(0, registry.get(SingleFlight.METER + ".in.flight").gauge().value());
+    }
+
+    @Test
+    public void testKeysAreSeparatedByName() {
+        assertEquals("user 1", singleFlight.load("users", 1L, () -> singleFlight.load("orders", 1L, () -> "order 1")
+                .replace("order", "user")));
+
+        assertEquals(1, calls("users", "loaded"));
+        assertEquals(1, calls("orders", "loaded"));
+    }
+
+    private void awaitInFlight(int loads) {
+        while (registry.get(SingleFlight.METER + ".in.flight").gauge().value() < loads) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
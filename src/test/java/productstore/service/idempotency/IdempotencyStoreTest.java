@@ -0,0 +1,206 @@
+package productstore.service.idempotency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import productstore.controller.dto.input.ProductInputDTO;
+import productstore.controller.dto.output.ProductOutputDTO;
+import productstore.repository.IdempotencyKeyRepository;
+import productstore.repository.IdempotencyKeyRepository.Entry;
+import productstore.service.exception.IdempotencyConflictException;
+import productstore.service.exception.IdempotencyKeyReusedException;
+import productstore.service.exception.ProductNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyStoreTest {
+
+    private static final Duration TTL = Duration.ofHours(24);
+    private static final Duration CLAIM_TIMEOUT = Duration.ofSeconds(60);
+
+    @Mock
+    private IdempotencyKeyRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyStore idempotencyStore;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        idempotencyStore = store();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        idempotencyStore.close();
+    }
+
+    @Test
+    public void testExecute_ReplaysResponseWithoutRunningAgain() {
+        when(repository.claim(eq("products"), eq("key-1"), anyString(), eq(CLAIM_TIMEOUT))).thenReturn(Optional.empty());
+
+        ProductOutputDTO first = idempotencyStore.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, this::create);
+        ProductOutputDTO second = idempotencyStore.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, this::create);
+
+        assertEquals(1, runs.get());
+        assertEquals(first.getId(), second.getId());
+        assertEquals("Product", second.getName());
+        verify(repository, times(1)).claim(anyString(), anyString(), anyString(), any());
+        verify(repository, times(1)).complete(eq("products"), eq("key-1"), anyString(), eq(TTL));
+    }
+
+    @Test
+    public void testExecute_ReplaysResponseStoredByAnotherInstance() {
+        when(repository.claim(eq("products"), eq("key-1"), anyString(), eq(CLAIM_TIMEOUT))).thenReturn(Optional.empty());
+        idempotencyStore.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, this::create);
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> response = ArgumentCaptor.forClass(String.class);
+        verify(repository).claim(eq("products"), eq("key-1"), requestHash.capture(), eq(CLAIM_TIMEOUT));
+        verify(repository).complete(eq("products"), eq("key-1"), response.capture(), eq(TTL));
+
+        try (IdempotencyStore otherInstance = store()) {
+            when(repository.claim(eq("products"), eq("key-1"), anyString(), eq(CLAIM_TIMEOUT)))
+                    .thenReturn(Optional.of(new Entry(requestHash.getValue(), response.getValue())));
+
+            ProductOutputDTO replayed = otherInstance.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, this::create);
+
+            assertEquals(1, runs.get());
+            assertEquals(1L, replayed.getId());
+        }
+    }
+
+    @Test
+    public void testExecute_KeyReusedWithDifferentRequest() {
+        when(repository.claim(eq("products"), eq("key-1"), anyString(), eq(CLAIM_TIMEOUT))).thenReturn(Optional.empty());
+        idempotencyStore.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, this::create);
+
+        assertThrows(IdempotencyKeyReusedException.class, () ->
+                idempotencyStore.execute("products", "key-1", input("Product", 1200), ProductOutputDTO.class, this::create));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testExecute_KeyInProgressElsewhere() {
+        when(repository.claim(eq("products"), eq("key-1"), anyString(), eq(CLAIM_TIMEOUT)))
+                .thenReturn(Optional.of(new Entry("other", null)));
+
+        assertThrows(IdempotencyConflictException.class, () ->
+                idempotencyStore.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, this::create));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testExecute_FailureReleasesKey() {
+        when(repository.claim(eq("products"), eq("key-1"), anyString(), eq(CLAIM_TIMEOUT))).thenReturn(Optional.empty());
+
+        assertThrows(ProductNotFoundException.class, () ->
+                idempotencyStore.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, () -> {
+                    throw new ProductNotFoundException("Products with ids [7] not found.");
+                }));
+        idempotencyStore.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, this::create);
+
+        verify(repository, times(1)).release("products", "key-1");
+        verify(repository, times(2)).claim(anyString(), anyString(), anyString(), any());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testExecute_RecordsResponseInTheActionsTransaction() {
+        when(repository.claim(eq("products"), eq("key-1"), anyString(), eq(CLAIM_TIMEOUT))).thenReturn(Optional.empty());
+        doThrow(new IllegalStateException("connection lost")).when(repository).complete(anyString(), anyString(), anyString(), any());
+
+        assertThrows(IllegalStateException.class, () ->
+                idempotencyStore.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, this::create));
+
+        InOrder inOrder = inOrder(transactionManager, repository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(repository).complete(eq("products"), eq("key-1"), anyString(), eq(TTL));
+        inOrder.verify(transactionManager).rollback(any());
+        inOrder.verify(repository).release("products", "key-1");
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    public void testExecuteAsync_KeepsKeyClaimedWhenResponseCannotBeRecorded() throws Exception {
+        when(repository.claim(eq("orders"), eq("key-1"), anyString(), eq(TTL))).thenReturn(Optional.empty());
+        doThrow(new IllegalStateException("connection lost")).when(repository).complete(anyString(), anyString(), anyString(), any());
+
+        CompletableFuture<ProductOutputDTO> result = idempotencyStore.executeAsync("orders", "key-1", input("Product", 1000),
+                ProductOutputDTO.class, () -> CompletableFuture.completedFuture(create()));
+
+        assertEquals(1L, result.get(5, TimeUnit.SECONDS).getId());
+        verify(repository, never()).release(anyString(), anyString());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    public void testExecuteAsync_CoalescesConcurrentRequests() throws Exception {
+        when(repository.claim(eq("orders"), eq("key-1"), anyString(), eq(TTL))).thenReturn(Optional.empty());
+        CompletableFuture<ProductOutputDTO> pending = new CompletableFuture<>();
+
+        CompletableFuture<ProductOutputDTO> first = idempotencyStore.executeAsync("orders", "key-1", input("Product", 1000),
+                ProductOutputDTO.class, () -> {
+                    runs.incrementAndGet();
+                    return pending;
+                });
+        CompletableFuture<ProductOutputDTO> second = idempotencyStore.executeAsync("orders", "key-1", input("Product", 1000),
+                ProductOutputDTO.class, () -> CompletableFuture.completedFuture(create()));
+
+        assertFalse(second.isDone());
+        pending.complete(new ProductOutputDTO(5L, "Product", 1000));
+
+        assertEquals(5L, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(5L, second.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(1, runs.get());
+        verify(repository, times(1)).claim(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    public void testExecute_PurgesExpiredKeysOncePerInterval() {
+        long[] now = {0};
+        when(repository.claim(anyString(), anyString(), anyString(), any())).thenReturn(Optional.empty());
+        try (IdempotencyStore store = new IdempotencyStore(repository, transactionManager, TTL, CLAIM_TIMEOUT, 100, Duration.ofHours(1), () -> now[0])) {
+            store.execute("products", "key-1", input("Product", 1000), ProductOutputDTO.class, this::create);
+            now[0] = Duration.ofHours(1).toMillis();
+            store.execute("products", "key-2", input("Product", 1000), ProductOutputDTO.class, this::create);
+            store.execute("products", "key-3", input("Product", 1000), ProductOutputDTO.class, this::create);
+        }
+
+        verify(repository, times(1)).deleteExpired();
+    }
+
+    private IdempotencyStore store() {
+        return new IdempotencyStore(repository, transactionManager, TTL, CLAIM_TIMEOUT, 100, Duration.ofHours(1));
+    }
+
+    private ProductOutputDTO create() {
+        return new ProductOutputDTO((long) runs.incrementAndGet(), "Product", 1000);
+    }
+
+    private static ProductInputDTO input(String name, long price) {
+        ProductInputDTO input = new ProductInputDTO();
+        input.setName(name);
+        input.setPrice(price);
+        return input;
+    }
+}